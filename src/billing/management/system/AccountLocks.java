@@ -0,0 +1,85 @@
+package billing.management.system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed by account id. Each account maps to one of a fixed number of stripes, so
+ * changes to the same account run one at a time while changes to accounts on other stripes run
+ * in parallel. With a single stripe every account shares one global lock.
+ *
+ * <pre>
+ * AccountLocks.Held held = locks.lock(customerId);
+ * try {
+ *     ...
+ * } finally {
+ *     held.close();
+ * }
+ * </pre>
+ */
+public class AccountLocks {
+    private final ReentrantLock[] stripes;
+
+    /** {@code stripeCount} is rounded up to a power of two. */
+    public AccountLocks(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be at least 1: " + stripeCount);
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) size <<= 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    public Held lock(int accountId) {
+        ReentrantLock stripe = stripes[stripeOf(accountId)];
+        stripe.lock();
+        List<ReentrantLock> held = new ArrayList<>(1);
+        held.add(stripe);
+        return new Held(held);
+    }
+
+    /** Locks the stripes of all the accounts, always in stripe order so that two callers cannot deadlock. */
+    public Held lockAll(int[] accountIds) {
+        boolean[] needed = new boolean[stripes.length];
+        for (int accountId : accountIds) {
+            needed[stripeOf(accountId)] = true;
+        }
+        List<ReentrantLock> held = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            if (needed[i]) {
+                stripes[i].lock();
+                held.add(stripes[i]);
+            }
+        }
+        return new Held(held);
+    }
+
+    // Spreads sequential ids over the stripes
+    private int stripeOf(int accountId) {
+        return (accountId * 0x9E3779B9 >>> 16) & (stripes.length - 1);
+    }
+
+    /** The stripes taken by one call; closing it releases them. */
+    public static final class Held implements AutoCloseable {
+        private final List<ReentrantLock> locks;
+
+        private Held(List<ReentrantLock> locks) {
+            this.locks = locks;
+        }
+
+        @Override
+        public void close() {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package billing.management.system;
 
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -8,7 +9,6 @@ import javafx.stage.Stage;
 import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class AddBillController {
     
@@ -20,6 +20,8 @@ public class AddBillController {
     
     private User company;
     private boolean billAdded = false;
+    private final DataAccess.Latest customerRequest = new DataAccess.Latest();
+    private static final int MAX_CUSTOMER_SUGGESTIONS = 100;
     
     public void setCompany(User company) {
         this.company = company;
@@ -41,26 +43,18 @@ public class AddBillController {
             TableColumn<User, String> emailColumn = (TableColumn<User, String>) customerTable.getColumns().get(2);
             emailColumn.setCellValueFactory(new PropertyValueFactory<>("email"));
             
+            if (customerSearchField != null) {
+                customerSearchField.textProperty().addListener((obs, oldText, newText) -> loadCustomers(newText.trim()));
+            }
             loadCustomers("");
         }
     }
     
     private void loadCustomers(String searchTerm) {
-        try {
-            List<User> customers = FileManager.loadUsers().stream()
-                    .filter(user -> user instanceof Customer)
-                    .filter(user -> {
-                        if (searchTerm.isEmpty()) return true;
-                        String lowerSearch = searchTerm.toLowerCase();
-                        return String.valueOf(user.getId()).contains(lowerSearch) ||
-                               user.getName().toLowerCase().contains(lowerSearch) ||
-                               user.getEmail().toLowerCase().contains(lowerSearch);
-                    })
-                    .collect(Collectors.toList());
-            customerTable.setItems(FXCollections.observableArrayList(customers));
-        } catch (Exception e) {
-            showAlert("Error", "Failed to load customers: " + e.getMessage());
-        }
+        Task<List<Customer>> task = customerRequest.submit(() -> FileManager.suggestCustomers(searchTerm, MAX_CUSTOMER_SUGGESTIONS),
+                customers -> customerTable.setItems(FXCollections.<User>observableArrayList(customers)),
+                e -> showAlert("Error", "Failed to load customers: " + e.getMessage()));
+        DataAccess.showLoading(customerTable, task);
     }
     
     @FXML
@@ -125,10 +119,11 @@ public class AddBillController {
             }
         }
         
-        try {
+        LocalDate finalDueDate = dueDate;
+        DataAccess.submit(() -> {
             int billId = FileManager.generateBillId();
             Date date = java.sql.Date.valueOf(billDate);
-            Date dueDateObj = java.sql.Date.valueOf(dueDate);
+            Date dueDateObj = java.sql.Date.valueOf(finalDueDate);
             if (dueDateObj == null) {
                 throw new IllegalStateException("Due date conversion resulted in null");
             }
@@ -145,15 +140,17 @@ public class AddBillController {
             );
             
             FileManager.saveBill(newBill);
+            return billId;
+        }, billId -> {
             billAdded = true;
-            System.out.println("Added bill ID " + billId + ": amount=" + amount + ", billDate=" + billDate + ", dueDate=" + dueDate + ", isPaid=false");
+            System.out.println("Added bill ID " + billId + ": amount=" + amount + ", billDate=" + billDate + ", dueDate=" + finalDueDate + ", isPaid=false");
             Stage stage = (Stage) amountField.getScene().getWindow();
             stage.close();
-        } catch (Exception e) {
+        }, e -> {
             System.err.println("Error adding bill: " + e.getMessage());
             e.printStackTrace();
             showAlert("Error", "Failed to add bill: " + e.getMessage());
-        }
+        });
     }
     
     @FXML
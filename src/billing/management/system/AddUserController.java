@@ -77,16 +77,24 @@ public class AddUserController {
             return;
         }
 
-        // Check for duplicate username
-        if (FileManager.loadUsers().stream()
-                .anyMatch(u -> u.getName().equalsIgnoreCase(username))) {
-            showAlert(Alert.AlertType.ERROR, "Duplicate Username", "Username already exists.");
-            return;
-        }
-
-        // Generate user ID
-        int userId = FileManager.generateUserId();
+        // Check for duplicate username and generate the user ID; -1 marks a duplicate
+        DataAccess.submit(() -> {
+            if (FileManager.loadUsers().stream()
+                    .anyMatch(u -> u.getName().equalsIgnoreCase(username))) {
+                return -1;
+            }
+            return FileManager.generateUserId();
+        }, userId -> {
+            if (userId < 0) {
+                showAlert(Alert.AlertType.ERROR, "Duplicate Username", "Username already exists.");
+                return;
+            }
+            createUser(userType, username, password, email, industry, startDate, userId);
+        }, e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to create user: " + e.getMessage()));
+    }
 
+    private void createUser(String userType, String username, String password, String email, String industry,
+            LocalDate startDate, int userId) {
         // Set start date to today if not specified for Customer
         Date userStartDate = startDate != null 
             ? Date.from(startDate.atStartOfDay(ZoneId.systemDefault()).toInstant())
@@ -6,6 +6,7 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -20,8 +21,15 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 public class AdminController extends FileManager {
@@ -64,25 +72,42 @@ public class AdminController extends FileManager {
 
     private final ObservableList<String> sortOptions = FXCollections.observableArrayList(
             "Name (A-Z)", "Highest Revenue", "Most Bills");
-    private ObservableList<User> userList = FXCollections.observableArrayList();
-    private ObservableList<Company> companyList = FXCollections.observableArrayList();
-    private ObservableList<Customer> customerList = FXCollections.observableArrayList();
     private static final int ITEMS_PER_PAGE = 26;
     private static final int ITEMS_PER_PAGE_2 = 19;
+    private static final SortedOrderCache<Company> COMPANY_ORDER = new SortedOrderCache<>();
+    private static final SortedOrderCache<Customer> CUSTOMER_ORDER = new SortedOrderCache<>();
+    private PagedTable<User> usersPager;
+    private PagedTable<Company> companyPager;
+    private PagedTable<Customer> customerPager;
+    // The lists last shown, which are never modified afterwards and can be exported off the FX thread
+    private List<Company> shownCompanies = Collections.emptyList();
+    private List<Customer> shownCustomers = Collections.emptyList();
+    private final DataAccess.Latest userRequest = new DataAccess.Latest();
+    private final DataAccess.Latest companyRequest = new DataAccess.Latest();
+    private final DataAccess.Latest customerRequest = new DataAccess.Latest();
+    private final SearchSession<User> userSearch = new SearchSession<>(userRequest,
+            () -> FileManager.loadUsers().getVersion());
+    private final SearchSession<Company> companySearch = new SearchSession<>(companyRequest, AdminController::reportVersion);
+    private final SearchSession<Customer> customerSearch = new SearchSession<>(customerRequest, AdminController::reportVersion);
     
 
     @FXML
     private void initialize() {
+        // Result lists go to the pagers as they are; they are never changed once returned
+        usersPager = new PagedTable<>(usersTable, pagination, ITEMS_PER_PAGE);
+        companyPager = new PagedTable<>(companyTable, companyPagination, ITEMS_PER_PAGE_2);
+        customerPager = new PagedTable<>(customerTable, customerPagination, ITEMS_PER_PAGE_2);
+
         // Initialize ComboBoxes
         if (companyComboBox != null) {
             companyComboBox.setItems(sortOptions);
             companyComboBox.getSelectionModel().selectFirst();
-            companyComboBox.setOnAction(event -> updateCompanyTable(0));
+            companyComboBox.setOnAction(event -> sortCompanyData());
         }
         if (customerComboBox != null) {
             customerComboBox.setItems(sortOptions);
             customerComboBox.getSelectionModel().selectFirst();
-            customerComboBox.setOnAction(event -> updateCustomerTable(0));
+            customerComboBox.setOnAction(event -> sortCustomerData());
         }
 
         // Initialize User TableView columns
@@ -128,6 +153,10 @@ public class AdminController extends FileManager {
             setupCustomerActionsColumn();
         }
 
+        userSearch.watch(searchField, () -> searchUsers(false));
+        companySearch.watch(companySearchField, () -> searchCompanies(false));
+        customerSearch.watch(customerSearchField, () -> searchCustomers(false));
+
         // Load initial data
         loadUsersData();
         loadCompanyData();
@@ -135,115 +164,188 @@ public class AdminController extends FileManager {
     }
 
     private void loadUsersData() {
-        userList.setAll(FileManager.loadUsers());
-        updatePagination();
-        updateTableView(0);
+        Task<List<User>> task = userRequest.submit(FileManager::loadUsers, users -> {
+            usersPager.setRows(users);
+        }, e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to load users: " + e.getMessage()));
+        DataAccess.showLoading(usersTable, task);
     }
 
     private void loadCompanyData() {
-        companyList.setAll(FileManager.loadUsers().stream()
-                .filter(user -> user instanceof Company)
-                .map(user -> (Company) user)
-                .collect(Collectors.toList()));
-        updateCompanyPagination();
-        updateCompanyTable(0);
+        String sortOption = selectedSortOption(companyComboBox);
+        Task<List<Company>> task = companyRequest.submit(() -> sortedCompanies(sortOption), this::showCompanies,
+                e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to load companies: " + e.getMessage()));
+        DataAccess.showLoading(companyTable, task);
     }
 
     private void loadCustomerData() {
-        customerList.setAll(FileManager.loadUsers().stream()
-                .filter(user -> user instanceof Customer)
-                .map(user -> (Customer) user)
-                .collect(Collectors.toList()));
-        updateCustomerPagination();
-        updateCustomerTable(0);
+        String sortOption = selectedSortOption(customerComboBox);
+        Task<List<Customer>> task = customerRequest.submit(() -> sortedCustomers(sortOption), this::showCustomers,
+                e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to load customers: " + e.getMessage()));
+        DataAccess.showLoading(customerTable, task);
+    }
+
+    // Re-sorts the companies listed, keeping any search filter
+    private void sortCompanyData() {
+        String query = companySearchField != null ? companySearchField.getText().trim().toLowerCase() : "";
+        String sortOption = selectedSortOption(companyComboBox);
+        companyRequest.submit(() -> filterCompanies(sortedCompanies(sortOption), query), this::showCompanies,
+                e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to sort companies: " + e.getMessage()));
+    }
+
+    private void sortCustomerData() {
+        String query = customerSearchField != null ? customerSearchField.getText().trim().toLowerCase() : "";
+        String sortOption = selectedSortOption(customerComboBox);
+        customerRequest.submit(() -> filterCustomers(sortedCustomers(sortOption), query), this::showCustomers,
+                e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to sort customers: " + e.getMessage()));
+    }
+
+    // All companies in the given order; sorted once per data version and sort option. The order is
+    // keyed on the versions of the snapshots it was sorted from, so a write that lands meanwhile
+    // makes the next call sort again instead of filing an old order under the new version
+    private static List<Company> sortedCompanies(String sortOption) {
+        DataSnapshot<User> users = FileManager.loadUsers();
+        DataSnapshot<Bill> bills = FileManager.loadBills();
+        return COMPANY_ORDER.get(users.getVersion(), bills.getVersion(), sortOption,
+                () -> sortCompanies(users.stream()
+                        .filter(user -> user instanceof Company)
+                        .map(user -> (Company) user)
+                        .collect(Collectors.toList()), sortOption));
+    }
+
+    private static List<Customer> sortedCustomers(String sortOption) {
+        DataSnapshot<User> users = FileManager.loadUsers();
+        DataSnapshot<Bill> bills = FileManager.loadBills();
+        return CUSTOMER_ORDER.get(users.getVersion(), bills.getVersion(), sortOption,
+                () -> sortCustomers(users.stream()
+                        .filter(user -> user instanceof Customer)
+                        .map(user -> (Customer) user)
+                        .collect(Collectors.toList()), sortOption));
     }
 
-    private void updatePagination() {
-        if (pagination == null) return;
-        int pageCount = (int) Math.ceil((double) userList.size() / ITEMS_PER_PAGE);
-        pagination.setPageCount(pageCount > 0 ? pageCount : 1);
-        pagination.currentPageIndexProperty().addListener((obs, oldIndex, newIndex) -> updateTableView(newIndex.intValue()));
+    // Company and customer reports depend on both files, so the key packs both versions side by
+    // side rather than summing them; each half only repeats after 2^32 writes
+    private static long reportVersion() {
+        return FileManager.loadUsers().getVersion() << 32 | (FileManager.loadBills().getVersion() & 0xFFFFFFFFL);
     }
 
-    private void updateCompanyPagination() {
-        if (companyPagination == null) return;
-        int pageCount = (int) Math.ceil((double) companyList.size() / ITEMS_PER_PAGE_2);
-        companyPagination.setPageCount(pageCount > 0 ? pageCount : 1);
-        companyPagination.currentPageIndexProperty().addListener((obs, oldIndex, newIndex) -> updateCompanyTable(newIndex.intValue()));
+    // Filtering keeps the sorted order, so searches reuse the cached sort
+    private static List<Company> filterCompanies(List<Company> companies, String query) {
+        return filterUsers(companies, query, Company.class, company -> matchesCompany(company, query));
     }
 
-    private void updateCustomerPagination() {
-        if (customerPagination == null) return;
-        int pageCount = (int) Math.ceil((double) customerList.size() / ITEMS_PER_PAGE_2);
-        customerPagination.setPageCount(pageCount > 0 ? pageCount : 1);
-        customerPagination.currentPageIndexProperty().addListener((obs, oldIndex, newIndex) -> updateCustomerTable(newIndex.intValue()));
+    private static List<Customer> filterCustomers(List<Customer> customers, String query) {
+        return filterUsers(customers, query, Customer.class, customer -> matchesCustomer(customer, query));
     }
 
-    private void updateTableView(int pageIndex) {
-        if (usersTable == null) return;
-        int fromIndex = pageIndex * ITEMS_PER_PAGE;
-        int toIndex = Math.min(fromIndex + ITEMS_PER_PAGE, userList.size());
-        usersTable.setItems(FXCollections.observableArrayList(userList.subList(fromIndex, toIndex)));
+    private static boolean matchesUser(User user, String query) {
+        String id = String.valueOf(user.getId()).toLowerCase();
+        String username = user.getName().toLowerCase();
+        String email = user.getEmail().toLowerCase();
+        String role = (user instanceof Admin ? "Admin" :
+                       user instanceof Company ? "Company" : "Customer").toLowerCase();
+        return id.contains(query) || username.contains(query) ||
+               email.contains(query) || role.contains(query);
     }
 
-    private void updateCompanyTable(int pageIndex) {
-        if (companyTable == null) return;
-        ObservableList<Company> sortedList = sortCompanies(companyList);
-        int fromIndex = pageIndex * ITEMS_PER_PAGE_2;
-        int toIndex = Math.min(fromIndex + ITEMS_PER_PAGE_2, sortedList.size());
-        companyTable.setItems(FXCollections.observableArrayList(sortedList.subList(fromIndex, toIndex)));
+    private static boolean matchesCompany(Company company, String query) {
+        String id = String.valueOf(company.getId()).toLowerCase();
+        String name = company.getName().toLowerCase();
+        String industry = company.getIndustry().toLowerCase();
+        return id.contains(query) || name.contains(query) || industry.contains(query);
     }
 
-    private void updateCustomerTable(int pageIndex) {
-        if (customerTable == null) return;
-        ObservableList<Customer> sortedList = sortCustomers(customerList);
-        int fromIndex = pageIndex * ITEMS_PER_PAGE_2;
-        int toIndex = Math.min(fromIndex + ITEMS_PER_PAGE_2, sortedList.size());
-        customerTable.setItems(FXCollections.observableArrayList(sortedList.subList(fromIndex, toIndex)));
+    private static boolean matchesCustomer(Customer customer, String query) {
+        String id = String.valueOf(customer.getId()).toLowerCase();
+        String name = customer.getName().toLowerCase();
+        String email = customer.getEmail().toLowerCase();
+        return id.contains(query) || name.contains(query) || email.contains(query);
+    }
+
+    // The search index narrows the users to check; the sorted list only supplies their order
+    private static <T extends User> List<T> filterUsers(List<T> sorted, String query, Class<T> type, Predicate<T> matches) {
+        if (query.isEmpty()) return sorted;
+        if (query.length() < TrigramIndex.MIN_QUERY_LENGTH) {
+            return sorted.stream().filter(matches).collect(Collectors.toList());
+        }
+        Set<User> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (User user : FileManager.searchUsers(query)) {
+            if (type.isInstance(user) && matches.test(type.cast(user))) found.add(user);
+        }
+        if (found.isEmpty()) return Collections.emptyList();
+        return sorted.stream().filter(found::contains).collect(Collectors.toList());
     }
 
-    private ObservableList<Company> sortCompanies(ObservableList<Company> companies) {
-        String sortOption = companyComboBox != null ? companyComboBox.getSelectionModel().getSelectedItem() : "Name (A-Z)";
-        ObservableList<Company> sortedList = FXCollections.observableArrayList(companies);
+    private void showCompanies(List<Company> companies) {
+        shownCompanies = companies;
+        companyPager.setRows(companies);
+    }
+
+    private void showCustomers(List<Customer> customers) {
+        shownCustomers = customers;
+        customerPager.setRows(customers);
+    }
+
+    private static String selectedSortOption(ComboBox<String> comboBox) {
+        String selected = comboBox != null ? comboBox.getSelectionModel().getSelectedItem() : null;
+        return selected != null ? selected : "Name (A-Z)";
+    }
+
+    private static List<Company> sortCompanies(List<Company> companies, String sortOption) {
+        List<Company> sortedList = new ArrayList<>(companies);
         switch (sortOption) {
             case "Name (A-Z)" -> sortedList.sort((c1, c2) -> c1.getName().compareToIgnoreCase(c2.getName()));
-            case "Highest Revenue" -> sortedList.sort((c1, c2) -> Double.compare(c2.getTotalrevenu(), c1.getTotalrevenu()));
-            case "Most Bills" -> sortedList.sort((c1, c2) -> Integer.compare(c2.getTotalBills(), c1.getTotalBills()));
+            case "Highest Revenue" -> sortedList = sortDescending(companies, c -> FileManager.getCompanyTotals(c.getId()).getTotal());
+            case "Most Bills" -> sortedList = sortDescending(companies, c -> FileManager.getCompanyTotals(c.getId()).getCount());
         }
         return sortedList;
     }
 
-    private ObservableList<Customer> sortCustomers(ObservableList<Customer> customers) {
-        String sortOption = customerComboBox != null ? customerComboBox.getSelectionModel().getSelectedItem() : "Name (A-Z)";
-        ObservableList<Customer> sortedList = FXCollections.observableArrayList(customers);
+    private static List<Customer> sortCustomers(List<Customer> customers, String sortOption) {
+        List<Customer> sortedList = new ArrayList<>(customers);
         switch (sortOption) {
             case "Name (A-Z)" -> sortedList.sort((c1, c2) -> c1.getName().compareToIgnoreCase(c2.getName()));
-            case "Highest Revenue" -> sortedList.sort((c1, c2) -> Double.compare(c2.getTotalrevenu(), c1.getTotalrevenu()));
-            case "Most Bills" -> sortedList.sort((c1, c2) -> Integer.compare(c2.getTotalBills(), c1.getTotalBills()));
+            case "Highest Revenue" -> sortedList = sortDescending(customers, c -> FileManager.getCustomerTotals(c.getId()).getPaidTotal());
+            case "Most Bills" -> sortedList = sortDescending(customers, c -> FileManager.getCustomerTotals(c.getId()).getCount());
         }
         return sortedList;
     }
 
+    // Reads each user's aggregate once and sorts on the extracted keys; ties keep their current order
+    private static <T> List<T> sortDescending(List<T> items, ToDoubleFunction<T> key) {
+        int size = items.size();
+        double[] keys = new double[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = key.applyAsDouble(items.get(i));
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(keys[b], keys[a]));
+        List<T> sorted = new ArrayList<>(size);
+        for (Integer index : order) {
+            sorted.add(items.get(index));
+        }
+        return sorted;
+    }
+
     @FXML
     private void handleSearch() {
+        searchUsers(true);
+    }
+
+    // Searches started by typing keep the current rows up until the results arrive
+    private void searchUsers(boolean fromButton) {
         String query = searchField.getText().trim().toLowerCase();
-        if (query.isEmpty()) {
-            userList.setAll(FileManager.loadUsers());
-        } else {
-            userList.setAll(FileManager.loadUsers().stream()
-                    .filter(user -> {
-                        String id = String.valueOf(user.getId()).toLowerCase();
-                        String username = user.getName().toLowerCase();
-                        String email = user.getEmail().toLowerCase();
-                        String role = (user instanceof Admin ? "Admin" :
-                                       user instanceof Company ? "Company" : "Customer").toLowerCase();
-                        return id.contains(query) || username.contains(query) ||
-                               email.contains(query) || role.contains(query);
-                    })
-                    .collect(Collectors.toList()));
-        }
-        updatePagination();
-        updateTableView(0);
+        Task<?> task = userSearch.submit(query, null, () -> {
+            if (query.isEmpty()) {
+                return FileManager.loadUsers();
+            }
+            return FileManager.searchUsers(query).stream()
+                    .filter(user -> matchesUser(user, query))
+                    .collect(Collectors.toList());
+        }, user -> matchesUser(user, query), users -> {
+            usersPager.setRows(users);
+        }, e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to search users: " + e.getMessage()));
+        if (fromButton) DataAccess.showLoading(usersTable, task);
 //        if (userList.isEmpty()) {
 //            showAlert(Alert.AlertType.INFORMATION, "No Results", "No users found matching the search term.");
 //        }
@@ -251,50 +353,69 @@ public class AdminController extends FileManager {
 
     @FXML
     private void handleCompanySearch() {
+        searchCompanies(true);
+    }
+
+    // A search from the button reports an empty result; one from typing just shows it
+    private void searchCompanies(boolean fromButton) {
         String query = companySearchField.getText().trim().toLowerCase();
-        if (query.isEmpty()) {
-            loadCompanyData();
-        } else {
-            companyList.setAll(FileManager.loadUsers().stream()
-                    .filter(user -> user instanceof Company)
-                    .map(user -> (Company) user)
-                    .filter(company -> {
-                        String id = String.valueOf(company.getId()).toLowerCase();
-                        String name = company.getName().toLowerCase();
-                        String industry = company.getIndustry().toLowerCase();
-                        return id.contains(query) || name.contains(query) || industry.contains(query);
-                    })
-                    .collect(Collectors.toList()));
-        }
-        updateCompanyPagination();
-        updateCompanyTable(0);
-        if (companyList.isEmpty()) {
-            showAlert(Alert.AlertType.INFORMATION, "No Results", "No companies found matching the search term.");
-        }
+        String sortOption = selectedSortOption(companyComboBox);
+        Task<?> task = companySearch.submit(query, sortOption, () -> filterCompanies(sortedCompanies(sortOption), query),
+                company -> matchesCompany(company, query), companies -> {
+            showCompanies(companies);
+            if (fromButton && !query.isEmpty() && companies.isEmpty()) {
+                showAlert(Alert.AlertType.INFORMATION, "No Results", "No companies found matching the search term.");
+            }
+        }, e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to search companies: " + e.getMessage()));
+        if (fromButton) DataAccess.showLoading(companyTable, task);
     }
 
     @FXML
     private void handleCustomerSearch() {
+        searchCustomers(true);
+    }
+
+    private void searchCustomers(boolean fromButton) {
         String query = customerSearchField.getText().trim().toLowerCase();
-        if (query.isEmpty()) {
-            loadCustomerData();
-        } else {
-            customerList.setAll(FileManager.loadUsers().stream()
-                    .filter(user -> user instanceof Customer)
-                    .map(user -> (Customer) user)
-                    .filter(customer -> {
-                        String id = String.valueOf(customer.getId()).toLowerCase();
-                        String name = customer.getName().toLowerCase();
-                        String email = customer.getEmail().toLowerCase();
-                        return id.contains(query) || name.contains(query) || email.contains(query);
-                    })
-                    .collect(Collectors.toList()));
-        }
-        updateCustomerPagination();
-        updateCustomerTable(0);
-        if (customerList.isEmpty()) {
-            showAlert(Alert.AlertType.INFORMATION, "No Results", "No customers found matching the search term.");
-        }
+        String sortOption = selectedSortOption(customerComboBox);
+        Task<?> task = customerSearch.submit(query, sortOption, () -> filterCustomers(sortedCustomers(sortOption), query),
+                customer -> matchesCustomer(customer, query), customers -> {
+            showCustomers(customers);
+            if (fromButton && !query.isEmpty() && customers.isEmpty()) {
+                showAlert(Alert.AlertType.INFORMATION, "No Results", "No customers found matching the search term.");
+            }
+        }, e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to search customers: " + e.getMessage()));
+        if (fromButton) DataAccess.showLoading(customerTable, task);
+    }
+
+    @FXML
+    private void exportCompanyReport() {
+        CsvExport.exportWithProgress(companyTable.getScene().getWindow(), "Export Companies", "companies.csv",
+                "ID,Company Name,Industry,No. of Bills,Total Revenue,Paid Revenue", shownCompanies, (company, line) -> {
+            line.append(company.getId()).append(',');
+            CsvExport.appendField(line, company.getName());
+            line.append(',');
+            CsvExport.appendField(line, company.getIndustry());
+            line.append(',').append(company.getTotalBills());
+            line.append(',').append(String.format("%.2f", company.getTotalrevenu()));
+            line.append(',').append(String.format("%.2f", company.getPaidRevenue()));
+        });
+    }
+
+    @FXML
+    private void exportCustomerReport() {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        CsvExport.exportWithProgress(customerTable.getScene().getWindow(), "Export Customers", "customers.csv",
+                "ID,Customer Name,Email,Join Date,No. of Bills,Paid Amount", shownCustomers, (customer, line) -> {
+            line.append(customer.getId()).append(',');
+            CsvExport.appendField(line, customer.getName());
+            line.append(',');
+            CsvExport.appendField(line, customer.getEmail());
+            line.append(',');
+            if (customer.getStartDate() != null) line.append(sdf.format(customer.getStartDate()));
+            line.append(',').append(customer.getTotalBills());
+            line.append(',').append(String.format("%.2f", customer.getTotalrevenu()));
+        });
     }
 
     private void setupCompanyActionsColumn() {
@@ -401,13 +522,12 @@ public class AdminController extends FileManager {
             dialogStage.showAndWait();
             if (controller.isUserAdded()) {
                 User newUser = controller.getNewUser();
-                List<User> users = FileManager.loadUsers();
-                users.add(newUser);
-                FileManager.saveUsers(users);
-                loadUsersData();
-                loadCompanyData();
-                loadCustomerData();
-                showAlert(Alert.AlertType.INFORMATION, "Success", "User added successfully.");
+                DataAccess.run(() -> FileManager.addUser(newUser), () -> {
+                    loadUsersData();
+                    loadCompanyData();
+                    loadCustomerData();
+                    showAlert(Alert.AlertType.INFORMATION, "Success", "User added successfully.");
+                }, e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to add user: " + e.getMessage()));
             }
         } catch (IOException e) {
             showAlert(Alert.AlertType.ERROR, "Error", "Failed to load add user dialog: " + e.getMessage());
@@ -427,12 +547,12 @@ public class AdminController extends FileManager {
         alert.setContentText("This will also delete all associated bills for Company or Customer users. This action cannot be undone.");
         alert.showAndWait().ifPresent(type -> {
             if (type.getButtonData() == ButtonBar.ButtonData.OK_DONE) {
-                List<User> users = FileManager.loadUsers();
-                FileManager.deleteUser(selected.getId(), users);
-                loadUsersData();
-                loadCompanyData();
-                loadCustomerData();
-                showAlert(Alert.AlertType.INFORMATION, "Success", "User and associated bills (if any) deleted successfully.");
+                DataAccess.run(() -> FileManager.deleteUser(selected.getId()), () -> {
+                    loadUsersData();
+                    loadCompanyData();
+                    loadCustomerData();
+                    showAlert(Alert.AlertType.INFORMATION, "Success", "User and associated bills (if any) deleted successfully.");
+                }, e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete user: " + e.getMessage()));
             }
         });
     }
@@ -2,29 +2,65 @@ package billing.management.system;
 
 import java.util.Date;
 
+/**
+ * A bill held with primitive fields only: dates as epoch milliseconds and the amount in cents, so
+ * a bill is one small object. {@link Date}s are created when a caller asks for one. An amount that
+ * is not a whole number of cents keeps its exact double bits instead, so no value is ever rounded.
+ */
 public class Bill {
+    /** The millisecond value of a missing date. */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
     private int billId;
-    private double value;
     private int customerId;
     private int companyId;
-    private String customerName;
-    private String companyName;
-    private Date date;
-    private Date dueDate;
+    private long amount;
+    private long dateMillis;
+    private long dueDateMillis;
+    // Shared with the other bills of the same users, see NameDictionary
+    private NameDictionary.Name customerName;
+    private NameDictionary.Name companyName;
     private boolean isPaid;
+    private boolean rawAmount;
 
     public Bill(int billId, double value, int customerId, int companyId, String customerName, String companyName, Date date, Date dueDate, boolean isPaid) {
+        this(billId, value, customerId, companyId, customerName, companyName,
+                date != null ? date.getTime() : NO_DATE, dueDate != null ? dueDate.getTime() : NO_DATE, isPaid);
+    }
+
+    /** For loaders: dates in epoch milliseconds, {@link #NO_DATE} for none. */
+    public Bill(int billId, double value, int customerId, int companyId, String customerName, String companyName, long dateMillis, long dueDateMillis, boolean isPaid) {
         this.billId = billId;
-        this.value = value;
+        setValue(value);
         this.customerId = customerId;
         this.companyId = companyId;
-        this.customerName = customerName;
-        this.companyName = companyName;
-        this.date = date;
-        this.dueDate = dueDate;
+        this.customerName = NameDictionary.of(customerId, customerName);
+        this.companyName = NameDictionary.of(companyId, companyName);
+        this.dateMillis = dateMillis;
+        this.dueDateMillis = dueDateMillis;
         this.isPaid = isPaid;
     }
 
+    private Bill(Bill other) {
+        this.billId = other.billId;
+        this.customerId = other.customerId;
+        this.companyId = other.companyId;
+        this.amount = other.amount;
+        this.rawAmount = other.rawAmount;
+        this.dateMillis = other.dateMillis;
+        this.dueDateMillis = other.dueDateMillis;
+        this.customerName = other.customerName;
+        this.companyName = other.companyName;
+        this.isPaid = other.isPaid;
+    }
+
+    /** A copy with another payment status; bills FileManager has handed out are never changed in place. */
+    public Bill withPaid(boolean isPaid) {
+        Bill copy = new Bill(this);
+        copy.isPaid = isPaid;
+        return copy;
+    }
+
     public int getBillId() {
         return billId;
     }
@@ -34,11 +70,18 @@ public class Bill {
     }
 
     public double getValue() {
-        return value;
+        return rawAmount ? Double.longBitsToDouble(amount) : amount / 100.0;
     }
 
     public void setValue(double value) {
-        this.value = value;
+        long cents = Math.round(value * 100);
+        rawAmount = Double.compare(cents / 100.0, value) != 0;
+        amount = rawAmount ? Double.doubleToRawLongBits(value) : cents;
+    }
+
+    /** The amount in cents, rounded if it is not a whole number of cents. */
+    public long getCents() {
+        return rawAmount ? Math.round(Double.longBitsToDouble(amount) * 100) : amount;
     }
 
     public int getCustomerId() {
@@ -47,6 +90,7 @@ public class Bill {
 
     public void setCustomerId(int customerId) {
         this.customerId = customerId;
+        this.customerName = NameDictionary.of(customerId, customerName.get());
     }
 
     public int getCompanyId() {
@@ -55,38 +99,41 @@ public class Bill {
 
     public void setCompanyId(int companyId) {
         this.companyId = companyId;
+        this.companyName = NameDictionary.of(companyId, companyName.get());
     }
 
+    /** Names follow the user; rename users through {@link NameDictionary#rename(int, String)}. */
     public String getCustomerName() {
-        return customerName;
-    }
-
-    public void setCustomerName(String customerName) {
-        this.customerName = customerName;
+        return customerName.get();
     }
 
     public String getCompanyName() {
-        return companyName;
-    }
-
-    public void setCompanyName(String companyName) {
-        this.companyName = companyName;
+        return companyName.get();
     }
 
+    /** A new Date on every call; {@link #getDateMillis()} avoids creating one. */
     public Date getDate() {
-        return date;
+        return dateMillis != NO_DATE ? new Date(dateMillis) : null;
     }
 
     public void setDate(Date date) {
-        this.date = date;
+        this.dateMillis = date != null ? date.getTime() : NO_DATE;
+    }
+
+    public long getDateMillis() {
+        return dateMillis;
     }
 
     public Date getDueDate() {
-        return dueDate;
+        return dueDateMillis != NO_DATE ? new Date(dueDateMillis) : null;
     }
 
     public void setDueDate(Date dueDate) {
-        this.dueDate = dueDate;
+        this.dueDateMillis = dueDate != null ? dueDate.getTime() : NO_DATE;
+    }
+
+    public long getDueDateMillis() {
+        return dueDateMillis;
     }
 
     public boolean isIspaid() {
@@ -98,6 +145,7 @@ public class Bill {
     }
 
     public String toDataString() {
-        return billId + "|" + value + "|" + customerId + "|" + companyId + "|" + customerName + "|" + companyName + "|" + date.getTime() + "|" + (dueDate != null ? dueDate.getTime() : "") + "|" + isPaid;
+        return billId + "|" + getValue() + "|" + customerId + "|" + companyId + "|" + getCustomerName() + "|" + getCompanyName() + "|"
+                + (dateMillis != NO_DATE ? dateMillis : "") + "|" + (dueDateMillis != NO_DATE ? dueDateMillis : "") + "|" + isPaid;
     }
 }
\ No newline at end of file
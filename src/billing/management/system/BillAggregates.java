@@ -0,0 +1,147 @@
+package billing.management.system;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Running per-company and per-customer bill totals, kept up to date by FileManager as bills are
+ * loaded, appended, paid or deleted, so user screens never have to walk the bills to show them.
+ * Amounts are summed in cents so that adding and removing bills does not leave rounding residue.
+ * Overdue totals are relative to the day of the last {@link #rebuild}; once {@link #isCurrent()}
+ * turns false the owner rebuilds so bills that fell due overnight are counted.
+ */
+public class BillAggregates {
+    private final IntObjectMap<Totals> byCompany = new IntObjectMap<>();
+    private final IntObjectMap<Totals> byCustomer = new IntObjectMap<>();
+    // Unpaid bills due before overdueBefore are overdue; valid until the day ends at overdueUntil
+    private long overdueBefore;
+    private long overdueUntil;
+
+    public void rebuild(List<Bill> bills) {
+        byCompany.clear();
+        byCustomer.clear();
+        LocalDate today = LocalDate.now();
+        ZoneId zone = ZoneId.systemDefault();
+        overdueBefore = today.atStartOfDay(zone).toInstant().toEpochMilli();
+        overdueUntil = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        for (Bill bill : bills) {
+            add(bill);
+        }
+    }
+
+    /** False once the day the overdue totals were computed for has passed. */
+    public boolean isCurrent() {
+        long now = System.currentTimeMillis();
+        return now >= overdueBefore && now < overdueUntil;
+    }
+
+    public void add(Bill bill) {
+        boolean overdue = isOverdue(bill, bill.isIspaid());
+        byCompany.computeIfAbsent(bill.getCompanyId(), id -> new Totals()).add(bill, bill.isIspaid(), overdue, 1);
+        byCustomer.computeIfAbsent(bill.getCustomerId(), id -> new Totals()).add(bill, bill.isIspaid(), overdue, 1);
+    }
+
+    public void removeAll(Collection<Bill> bills) {
+        for (Bill bill : bills) {
+            apply(bill, bill.isIspaid(), -1);
+        }
+    }
+
+    /** Moves a bill between paid and unpaid when {@code updated} replaces {@code old}. */
+    public void statusChanged(Bill old, Bill updated) {
+        if (old.isIspaid() == updated.isIspaid()) return;
+        apply(old, old.isIspaid(), -1);
+        apply(updated, updated.isIspaid(), 1);
+    }
+
+    private void apply(Bill bill, boolean paid, int sign) {
+        boolean overdue = isOverdue(bill, paid);
+        Totals company = byCompany.get(bill.getCompanyId());
+        if (company != null) company.add(bill, paid, overdue, sign);
+        Totals customer = byCustomer.get(bill.getCustomerId());
+        if (customer != null) customer.add(bill, paid, overdue, sign);
+    }
+
+    private boolean isOverdue(Bill bill, boolean paid) {
+        return !paid && bill.getDueDateMillis() != Bill.NO_DATE && bill.getDueDateMillis() < overdueBefore;
+    }
+
+    public Totals company(int companyId) {
+        Totals totals = byCompany.get(companyId);
+        return totals != null ? totals : Totals.EMPTY;
+    }
+
+    public Totals customer(int customerId) {
+        Totals totals = byCustomer.get(customerId);
+        return totals != null ? totals : Totals.EMPTY;
+    }
+
+    public static class Totals {
+        static final Totals EMPTY = new Totals();
+
+        private int count;
+        private int paidCount;
+        private int overdueCount;
+        private long totalCents;
+        private long paidCents;
+        private long overdueCents;
+
+        Totals copy() {
+            Totals copy = new Totals();
+            copy.count = count;
+            copy.paidCount = paidCount;
+            copy.overdueCount = overdueCount;
+            copy.totalCents = totalCents;
+            copy.paidCents = paidCents;
+            copy.overdueCents = overdueCents;
+            return copy;
+        }
+
+        private void add(Bill bill, boolean paid, boolean overdue, int sign) {
+            long cents = sign * bill.getCents();
+            count += sign;
+            totalCents += cents;
+            if (paid) {
+                paidCount += sign;
+                paidCents += cents;
+            } else if (overdue) {
+                overdueCount += sign;
+                overdueCents += cents;
+            }
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getPaidCount() {
+            return paidCount;
+        }
+
+        public int getUnpaidCount() {
+            return count - paidCount;
+        }
+
+        public int getOverdueCount() {
+            return overdueCount;
+        }
+
+        public double getTotal() {
+            return totalCents / 100.0;
+        }
+
+        public double getPaidTotal() {
+            return paidCents / 100.0;
+        }
+
+        public double getUnpaidTotal() {
+            return (totalCents - paidCents) / 100.0;
+        }
+
+        public double getOverdueTotal() {
+            return overdueCents / 100.0;
+        }
+    }
+}
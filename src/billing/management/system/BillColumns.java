@@ -0,0 +1,256 @@
+package billing.management.system;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bills laid out column by column in parallel primitive arrays, sorted by date, for analytics
+ * scans. A scan reads only the columns it needs from consecutive memory instead of following a
+ * pointer to every bill, and the loops over a range of rows are plain enough for the JIT to unroll
+ * and vectorize. A table is an immutable copy of the bills at one version; FileManager builds a
+ * new one after bills are added or deleted, and derives one through {@link #withReplaced} when a
+ * bill is paid or unpaid.
+ *
+ * <p>Operators work either on a range of rows, which is a date range since rows are in date order,
+ * or on a list of rows picked by {@link #select}, kept in ascending order.
+ */
+public class BillColumns {
+    public enum Status { ALL, PAID, UNPAID, OVERDUE }
+
+    private final long version;
+    private final Bill[] bills;
+    private final int[] billIds;
+    private final int[] customerIds;
+    private final int[] companyIds;
+    private final long[] cents;
+    private final long[] dates;
+    // A missing due date is stored as Long.MAX_VALUE so that it never counts as overdue
+    private final long[] dueDates;
+    private final long[] paid;
+
+    /** {@code bills} must be in date order, as from {@link BillIndex#billsBetween(long, long)}. */
+    public BillColumns(List<Bill> bills, long version) {
+        this.version = version;
+        int size = bills.size();
+        this.bills = bills.toArray(new Bill[0]);
+        billIds = new int[size];
+        customerIds = new int[size];
+        companyIds = new int[size];
+        cents = new long[size];
+        dates = new long[size];
+        dueDates = new long[size];
+        paid = new long[(size + 63) >>> 6];
+        for (int row = 0; row < size; row++) {
+            Bill bill = this.bills[row];
+            billIds[row] = bill.getBillId();
+            customerIds[row] = bill.getCustomerId();
+            companyIds[row] = bill.getCompanyId();
+            cents[row] = bill.getCents();
+            dates[row] = bill.getDateMillis();
+            long dueDate = bill.getDueDateMillis();
+            dueDates[row] = dueDate != Bill.NO_DATE ? dueDate : Long.MAX_VALUE;
+            if (bill.isIspaid()) paid[row >>> 6] |= 1L << row;
+        }
+    }
+
+    private BillColumns(BillColumns source, Bill[] bills, long[] paid, long version) {
+        this.version = version;
+        this.bills = bills;
+        this.paid = paid;
+        billIds = source.billIds;
+        customerIds = source.customerIds;
+        companyIds = source.companyIds;
+        cents = source.cents;
+        dates = source.dates;
+        dueDates = source.dueDates;
+    }
+
+    /**
+     * A table at {@code newVersion} with {@code updated} in the row of {@code old}, which it only
+     * differs from in payment status. The bill references and paid bits are copied and every other
+     * column is shared, which is far cheaper than building the table again. Returns null if
+     * {@code old} is not in the table.
+     */
+    public BillColumns withReplaced(Bill old, Bill updated, long newVersion) {
+        long time = old.getDateMillis();
+        for (int row = lowerBound(time); row < bills.length && dates[row] == time; row++) {
+            if (bills[row] == old) {
+                Bill[] newBills = bills.clone();
+                newBills[row] = updated;
+                long[] newPaid = paid.clone();
+                if (updated.isIspaid()) {
+                    newPaid[row >>> 6] |= 1L << row;
+                } else {
+                    newPaid[row >>> 6] &= ~(1L << row);
+                }
+                return new BillColumns(this, newBills, newPaid, newVersion);
+            }
+        }
+        return null;
+    }
+
+    /** The bills version the table was built from. */
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return bills.length;
+    }
+
+    public Bill bill(int row) {
+        return bills[row];
+    }
+
+    public int billId(int row) {
+        return billIds[row];
+    }
+
+    public int customerId(int row) {
+        return customerIds[row];
+    }
+
+    public int companyId(int row) {
+        return companyIds[row];
+    }
+
+    public long cents(int row) {
+        return cents[row];
+    }
+
+    public long date(int row) {
+        return dates[row];
+    }
+
+    public boolean isPaid(int row) {
+        return (paid[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /** First row dated at or after {@code time}, or {@link #size()} if there is none. */
+    public int lowerBound(long time) {
+        int low = 0;
+        int high = dates.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dates[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Writes the rows from {@code from} (inclusive) to {@code until} (exclusive) that have the
+     * status into {@code rows}, which needs room for the whole range, and returns how many there
+     * are. Bills due before {@code overdueBefore} and not paid are overdue.
+     */
+    public int select(int from, int until, Status status, long overdueBefore, int[] rows) {
+        int count = 0;
+        switch (status) {
+            case PAID:
+                for (int row = from; row < until; row++) {
+                    if (isPaid(row)) rows[count++] = row;
+                }
+                break;
+            case UNPAID:
+                for (int row = from; row < until; row++) {
+                    if (!isPaid(row)) rows[count++] = row;
+                }
+                break;
+            case OVERDUE:
+                for (int row = from; row < until; row++) {
+                    if (dueDates[row] < overdueBefore && !isPaid(row)) rows[count++] = row;
+                }
+                break;
+            default:
+                for (int row = from; row < until; row++) {
+                    rows[count++] = row;
+                }
+                break;
+        }
+        return count;
+    }
+
+    public long sumCents(int from, int until) {
+        long sum = 0;
+        for (int row = from; row < until; row++) {
+            sum += cents[row];
+        }
+        return sum;
+    }
+
+    public long sumCents(int[] rows, int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += cents[rows[i]];
+        }
+        return sum;
+    }
+
+    public int countPaid(int from, int until) {
+        int count = 0;
+        int row = from;
+        for (; row < until && (row & 63) != 0; row++) {
+            if (isPaid(row)) count++;
+        }
+        for (; row + 64 <= until; row += 64) {
+            count += Long.bitCount(paid[row >>> 6]);
+        }
+        for (; row < until; row++) {
+            if (isPaid(row)) count++;
+        }
+        return count;
+    }
+
+    public int countPaid(int[] rows, int count) {
+        int paidCount = 0;
+        for (int i = 0; i < count; i++) {
+            paidCount += (int) (paid[rows[i] >>> 6] >>> rows[i]) & 1;
+        }
+        return paidCount;
+    }
+
+    public int countOverdue(int from, int until, long overdueBefore) {
+        int count = 0;
+        for (int row = from; row < until; row++) {
+            if (dueDates[row] < overdueBefore && !isPaid(row)) count++;
+        }
+        return count;
+    }
+
+    public int countOverdue(int[] rows, int count, long overdueBefore) {
+        int overdue = 0;
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            if (dueDates[row] < overdueBefore && !isPaid(row)) overdue++;
+        }
+        return overdue;
+    }
+
+    /**
+     * Adds the cents of the rows to their month in {@code into}. Rows in ascending order come in
+     * date order, so each month's boundaries are resolved once rather than once per row.
+     */
+    public void sumCentsByMonth(int[] rows, int count, ZoneId zone, Map<YearMonth, Long> into) {
+        YearMonth month = null;
+        long monthUntil = Long.MIN_VALUE;
+        long monthCents = 0;
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            long date = dates[row];
+            if (month == null || date >= monthUntil) {
+                if (month != null) into.merge(month, monthCents, Long::sum);
+                month = YearMonth.from(Instant.ofEpochMilli(date).atZone(zone));
+                monthUntil = month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+                monthCents = 0;
+            }
+            monthCents += cents[row];
+        }
+        if (month != null) into.merge(month, monthCents, Long::sum);
+    }
+}
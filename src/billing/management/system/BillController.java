@@ -12,6 +12,7 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.PieChart;
@@ -20,8 +21,6 @@ import javafx.scene.control.*;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.util.Date;
-import java.util.List;
-import java.util.stream.Collectors;
 import javafx.stage.FileChooser;
 
 public class BillController {
@@ -45,9 +44,11 @@ public class BillController {
     @FXML private Pagination billsPagination;
 
     private final ObservableList<String> statusOptions = FXCollections.observableArrayList(
-            "All Bills", "Paid", "Unpaid", "Overdue");
-    private ObservableList<Bill> billList = FXCollections.observableArrayList();
+            BillQuery.ALL, BillQuery.PAID, BillQuery.UNPAID, BillQuery.OVERDUE);
     private static final int ITEMS_PER_PAGE = 21;
+    private final DataAccess.Latest queryRequest = new DataAccess.Latest();
+    private BillQuery.Result queryResult;
+    private PagedTable<Bill> billsPager;
 
     @FXML
     private void initialize() {
@@ -96,88 +97,64 @@ public class BillController {
             });
         }
 
-        if (billsPagination != null) {
-            billsPagination.currentPageIndexProperty().addListener((obs, oldIndex, newIndex) -> updateBillsTable(newIndex.intValue()));
-        }
-
-        loadBills();
-        updateBillsTable(0);
-        updateStatistics();
-        updateCharts();
-    }
-
-    private void loadBills() {
-        billList.setAll(FileManager.loadBills());
-        updatePagination();
+        billsPager = new PagedTable<>(billsTable, billsPagination, ITEMS_PER_PAGE);
+        runQuery();
     }
 
-    private void updatePagination() {
-        if (billsPagination == null) return;
-        int pageCount = (int) Math.ceil((double) billList.size() / ITEMS_PER_PAGE);
-        billsPagination.setPageCount(pageCount > 0 ? pageCount : 1);
+    // Loads and filters on the I/O thread; a newer query supersedes one still in flight
+    private void runQuery() {
+        BillQuery query = new BillQuery(startDatePicker.getValue(), endDatePicker.getValue(), statusFilterCombo.getValue());
+        Task<BillQuery.Result> task = queryRequest.submit(
+                () -> query.run(FileManager.loadBillColumns()),
+                result -> {
+                    queryResult = result;
+                    updateBillsTable();
+                    updateStatistics();
+                    updateCharts();
+                },
+                error -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to load bills: " + error.getMessage()));
+        DataAccess.showLoading(billsTable, task);
     }
 
-    private void updateBillsTable(int pageIndex) {
-        if (billsTable == null) return;
-
-        LocalDate startDate = startDatePicker.getValue();
-        LocalDate endDate = endDatePicker.getValue();
-        String status = statusFilterCombo.getValue();
-
-        ObservableList<Bill> filteredBills = billList.filtered(bill -> {
-            Date billDate = bill.getDate();
-            LocalDate billLocalDate = billDate.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate();
-
-            boolean dateInRange = (startDate == null || !billLocalDate.isBefore(startDate)) &&
-                                 (endDate == null || !billLocalDate.isAfter(endDate));
+    private void updateBillsTable() {
+        if (billsTable == null || queryResult == null) return;
 
-            boolean statusMatch;
-            switch (status) {
-                case "Paid":
-                    statusMatch = bill.isIspaid();
-                    break;
-                case "Unpaid":
-                    statusMatch = !bill.isIspaid();
-                    break;
-                case "Overdue":
-                    statusMatch = !bill.isIspaid() && bill.getDueDate() != null && bill.getDueDate().toInstant()
-                            .atZone(java.time.ZoneId.systemDefault()).toLocalDate().isBefore(LocalDate.now());
-                    break;
-                case "All Bills":
-                default:
-                    statusMatch = true;
-                    break;
-            }
+        billsPager.setRows(queryResult.getBills());
 
-            return dateInRange && statusMatch;
-        });
-
-        int pageCount = (int) Math.ceil((double) filteredBills.size() / ITEMS_PER_PAGE);
-        billsPagination.setPageCount(pageCount > 0 ? pageCount : 1);
-
-        int fromIndex = pageIndex * ITEMS_PER_PAGE;
-        int toIndex = Math.min(fromIndex + ITEMS_PER_PAGE, filteredBills.size());
-        billsTable.setItems(FXCollections.observableArrayList(filteredBills.subList(fromIndex, toIndex)));
-
-        if (filteredBills.isEmpty()) {
+        if (queryResult.size() == 0) {
             billsTable.setPlaceholder(new javafx.scene.text.Text("No bills found for the selected filters."));
         }
     }
 
     @FXML
     private void applyBillFilters() {
-        updateBillsTable(0);
-        updateStatistics();
-        updateCharts();
+        runQuery();
     }
 
     @FXML
     private void exportBillData() {
-        showAlert(Alert.AlertType.INFORMATION, "Data Exported", "Bill data has been exported successfully (CSV export not implemented).");
+        if (queryResult == null || queryResult.size() == 0) {
+            showAlert(Alert.AlertType.INFORMATION, "No Data", "There are no bills to export for the selected filters.");
+            return;
+        }
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        CsvExport.exportWithProgress(billsTable.getScene().getWindow(), "Export Bills", "bills.csv",
+                "Bill ID,Amount,Customer,Company,Date,Due Date,Paid", queryResult.getBills(), (bill, line) -> {
+            line.append(bill.getBillId()).append(',');
+            line.append(String.format("%.2f", bill.getValue())).append(',');
+            CsvExport.appendField(line, bill.getCustomerName());
+            line.append(',');
+            CsvExport.appendField(line, bill.getCompanyName());
+            line.append(',');
+            if (bill.getDate() != null) line.append(sdf.format(bill.getDate()));
+            line.append(',');
+            if (bill.getDueDate() != null) line.append(sdf.format(bill.getDueDate()));
+            line.append(',').append(bill.isIspaid() ? "Yes" : "No");
+        });
     }
 
     private void updateStatistics() {
-        if (billList == null || billList.isEmpty()) {
+        if (queryResult == null) {
             totalRevenueLabel.setText("$0.00");
             averageBillLabel.setText("$0.00");
             paidBillsLabel.setText("0");
@@ -185,107 +162,25 @@ public class BillController {
             return;
         }
 
-        LocalDate startDate = startDatePicker.getValue();
-        LocalDate endDate = endDatePicker.getValue();
-        String status = statusFilterCombo.getValue();
-
-        List<Bill> filteredBills = billList.stream().filter(bill -> {
-            Date billDate = bill.getDate();
-            LocalDate billLocalDate = billDate.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate();
-
-            boolean dateInRange = (startDate == null || !billLocalDate.isBefore(startDate)) &&
-                                 (endDate == null || !billLocalDate.isAfter(endDate));
-
-            boolean statusMatch;
-            switch (status) {
-                case "Paid":
-                    statusMatch = bill.isIspaid();
-                    break;
-                case "Unpaid":
-                    statusMatch = !bill.isIspaid();
-                    break;
-                case "Overdue":
-                    statusMatch = !bill.isIspaid() && bill.getDueDate() != null && bill.getDueDate().toInstant()
-                            .atZone(java.time.ZoneId.systemDefault()).toLocalDate().isBefore(LocalDate.now());
-                    break;
-                case "All Bills":
-                default:
-                    statusMatch = true;
-                    break;
-            }
-
-            return dateInRange && statusMatch;
-        }).collect(Collectors.toList());
-
-        double totalRevenue = filteredBills.stream().mapToDouble(Bill::getValue).sum();
-        double averageBill = filteredBills.isEmpty() ? 0 : totalRevenue / filteredBills.size();
-        long paidBills = filteredBills.stream().filter(Bill::isIspaid).count();
-        long unpaidBills = filteredBills.stream().filter(bill -> !bill.isIspaid()).count();
-
-        totalRevenueLabel.setText(String.format("$%.2f", totalRevenue));
-        averageBillLabel.setText(String.format("$%.2f", averageBill));
-        paidBillsLabel.setText(String.valueOf(paidBills));
-        unpaidBillsLabel.setText(String.valueOf(unpaidBills));
+        totalRevenueLabel.setText(String.format("$%.2f", queryResult.getTotal()));
+        averageBillLabel.setText(String.format("$%.2f", queryResult.getAverage()));
+        paidBillsLabel.setText(String.valueOf(queryResult.getPaidCount()));
+        unpaidBillsLabel.setText(String.valueOf(queryResult.getUnpaidCount()));
     }
 
     private void updateCharts() {
-        LocalDate startDate = startDatePicker.getValue();
-        LocalDate endDate = endDatePicker.getValue();
-        String status = statusFilterCombo.getValue();
-
-        List<Bill> filteredBills = billList.stream().filter(bill -> {
-            Date billDate = bill.getDate();
-            LocalDate billLocalDate = billDate.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate();
-
-            boolean dateInRange = (startDate == null || !billLocalDate.isBefore(startDate)) &&
-                                 (endDate == null || !billLocalDate.isAfter(endDate));
-
-            boolean statusMatch;
-            switch (status) {
-                case "Paid":
-                    statusMatch = bill.isIspaid();
-                    break;
-                case "Unpaid":
-                    statusMatch = !bill.isIspaid();
-                    break;
-                case "Overdue":
-                    statusMatch = !bill.isIspaid() && bill.getDueDate() != null && bill.getDueDate().toInstant()
-                            .atZone(java.time.ZoneId.systemDefault()).toLocalDate().isBefore(LocalDate.now());
-                    break;
-                case "All Bills":
-                default:
-                    statusMatch = true;
-                    break;
-            }
-
-            return dateInRange && statusMatch;
-        }).collect(Collectors.toList());
-
-        long paidCount = filteredBills.stream().filter(Bill::isIspaid).count();
-        long unpaidCount = filteredBills.stream().filter(bill -> !bill.isIspaid()).count();
-        long overdueCount = filteredBills.stream()
-                .filter(bill -> !bill.isIspaid() && bill.getDueDate() != null && bill.getDueDate().toInstant()
-                        .atZone(java.time.ZoneId.systemDefault()).toLocalDate().isBefore(LocalDate.now()))
-                .count();
+        if (queryResult == null) return;
 
         ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList(
-                new PieChart.Data("Paid", paidCount),
-                new PieChart.Data("Unpaid", unpaidCount),
-                new PieChart.Data("Overdue", overdueCount)
+                new PieChart.Data("Paid", queryResult.getPaidCount()),
+                new PieChart.Data("Unpaid", queryResult.getUnpaidCount()),
+                new PieChart.Data("Overdue", queryResult.getOverdueCount())
         );
         paymentStatusChart.setData(pieChartData);
 
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Revenue");
-
-        java.util.Map<String, Double> monthlyRevenue = new java.util.TreeMap<>();
-        SimpleDateFormat monthFormat = new SimpleDateFormat("MMM yyyy");
-        for (Bill bill : filteredBills) {
-            String month = monthFormat.format(bill.getDate());
-            monthlyRevenue.merge(month, bill.getValue(), Double::sum);
-        }
-
-        monthlyRevenue.forEach((month, revenue) -> series.getData().add(new XYChart.Data<>(month, revenue)));
+        queryResult.getMonthlyRevenue().forEach((month, revenue) -> series.getData().add(new XYChart.Data<>(month, revenue)));
 
         revenueTrendChart.getData().clear();
         revenueTrendChart.getData().add(series);
@@ -0,0 +1,178 @@
+package billing.management.system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bills ordered by bill date, held as a primitive array of epoch milliseconds next to the bills
+ * themselves, so a date range resolves to a contiguous slice with two binary searches. Bills
+ * appended in date order go straight on the end; older-dated ones wait in a small pending buffer
+ * that is merged in before the next query. Bills with equal dates keep the order they were added in.
+ */
+public class BillDateIndex {
+    private long[] times = new long[16];
+    private Bill[] bills = new Bill[16];
+    private int size;
+    private long[] pendingTimes = new long[4];
+    private Bill[] pendingBills = new Bill[4];
+    private int pendingSize;
+
+    public BillDateIndex() {
+    }
+
+    public BillDateIndex(Collection<Bill> source) {
+        rebuild(source);
+    }
+
+    public void rebuild(Collection<Bill> source) {
+        Bill[] sorted = source.toArray(new Bill[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(BillDateIndex::timeOf));
+        bills = Arrays.copyOf(sorted, Math.max(16, sorted.length));
+        times = new long[bills.length];
+        size = sorted.length;
+        for (int i = 0; i < size; i++) {
+            times[i] = timeOf(bills[i]);
+        }
+        Arrays.fill(pendingBills, 0, pendingSize, null);
+        pendingSize = 0;
+    }
+
+    public void add(Bill bill) {
+        long time = timeOf(bill);
+        if (pendingSize == 0 && (size == 0 || time >= times[size - 1])) {
+            if (size == bills.length) grow(size + 1);
+            times[size] = time;
+            bills[size++] = bill;
+            return;
+        }
+        if (pendingSize == pendingBills.length) {
+            pendingBills = Arrays.copyOf(pendingBills, pendingSize * 2);
+            pendingTimes = Arrays.copyOf(pendingTimes, pendingSize * 2);
+        }
+        pendingTimes[pendingSize] = time;
+        pendingBills[pendingSize++] = bill;
+    }
+
+    /** Removes the bills in {@code removed}, a set compared by identity, in one pass over the dates. */
+    public void removeAll(Set<Bill> removed) {
+        int kept = 0;
+        for (int i = 0; i < pendingSize; i++) {
+            if (!removed.contains(pendingBills[i])) {
+                pendingTimes[kept] = pendingTimes[i];
+                pendingBills[kept++] = pendingBills[i];
+            }
+        }
+        Arrays.fill(pendingBills, kept, pendingSize, null);
+        pendingSize = kept;
+        kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (!removed.contains(bills[i])) {
+                times[kept] = times[i];
+                bills[kept++] = bills[i];
+            }
+        }
+        Arrays.fill(bills, kept, size, null);
+        size = kept;
+    }
+
+    /** Puts {@code updated} in the place of {@code old}; both must have the same date. */
+    public boolean replace(Bill old, Bill updated) {
+        for (int i = 0; i < pendingSize; i++) {
+            if (pendingBills[i] == old) {
+                pendingBills[i] = updated;
+                return true;
+            }
+        }
+        long time = timeOf(old);
+        for (int i = lowerBound(time); i < size && times[i] == time; i++) {
+            if (bills[i] == old) {
+                bills[i] = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size + pendingSize;
+    }
+
+    /** Bills dated from {@code from} (inclusive) to {@code until} (exclusive), oldest first. */
+    public List<Bill> between(long from, long until) {
+        mergePending();
+        int start = lowerBound(from);
+        int end = lowerBound(until);
+        if (start >= end) return Collections.emptyList();
+        List<Bill> result = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            result.add(bills[i]);
+        }
+        return result;
+    }
+
+    public int countBetween(long from, long until) {
+        mergePending();
+        return Math.max(0, lowerBound(until) - lowerBound(from));
+    }
+
+    // First position whose time is at or after the given time
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void mergePending() {
+        if (pendingSize == 0) return;
+        Integer[] order = new Integer[pendingSize];
+        for (int i = 0; i < pendingSize; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> pendingTimes[i]));
+
+        int total = size + pendingSize;
+        long[] mergedTimes = new long[Math.max(16, total + (total >> 1))];
+        Bill[] mergedBills = new Bill[mergedTimes.length];
+        int left = 0;
+        int right = 0;
+        int out = 0;
+        while (left < size || right < pendingSize) {
+            if (right == pendingSize || (left < size && times[left] <= pendingTimes[order[right]])) {
+                mergedTimes[out] = times[left];
+                mergedBills[out++] = bills[left++];
+            } else {
+                int index = order[right++];
+                mergedTimes[out] = pendingTimes[index];
+                mergedBills[out++] = pendingBills[index];
+            }
+        }
+        times = mergedTimes;
+        bills = mergedBills;
+        size = total;
+        Arrays.fill(pendingBills, 0, pendingSize, null);
+        pendingSize = 0;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, bills.length + (bills.length >> 1));
+        bills = Arrays.copyOf(bills, capacity);
+        times = Arrays.copyOf(times, capacity);
+    }
+
+    private static long timeOf(Bill bill) {
+        return bill.getDateMillis();
+    }
+}
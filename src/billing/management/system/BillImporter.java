@@ -0,0 +1,252 @@
+package billing.management.system;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk import of bills from a CSV file with the columns
+ * {@code customerId,companyId,amount,date,dueDate[,paid]}, dates as yyyy-MM-dd. The file is read in
+ * chunks that are parsed and validated in parallel against the current users; accepted bills then
+ * get one block of ids and are appended with a single write, and rejected rows are written to a
+ * report next to the file.
+ */
+public class BillImporter {
+    private static final int CHUNK_LINES = 16 * 1024;
+    private static final int MAX_YEARS_AHEAD = 1;
+
+    private final int threads;
+    private int companyId = -1;
+
+    public BillImporter(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Import thread count must be at least 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /** Restricts the import to bills of one company; other rows are rejected. */
+    public void setCompanyId(int companyId) {
+        this.companyId = companyId;
+    }
+
+    public Report importFile(Path file) throws IOException {
+        IntObjectMap<Customer> customers = new IntObjectMap<>();
+        IntObjectMap<Company> companies = new IntObjectMap<>();
+        for (User user : FileManager.loadUsers()) {
+            if (user instanceof Customer) customers.put(user.getId(), (Customer) user);
+            if (user instanceof Company) companies.put(user.getId(), (Company) user);
+        }
+        Validator validator = new Validator(customers, companies, companyId);
+
+        List<Bill> accepted = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<Future<Chunk>> chunks = new ArrayList<>();
+            List<String> lines = new ArrayList<>(CHUNK_LINES);
+            int firstLine = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == CHUNK_LINES) {
+                    List<String> chunkLines = lines;
+                    int chunkStart = firstLine;
+                    chunks.add(executor.submit(() -> validator.validate(chunkLines, chunkStart)));
+                    firstLine += chunkLines.size();
+                    lines = new ArrayList<>(CHUNK_LINES);
+                }
+            }
+            if (!lines.isEmpty()) {
+                List<String> chunkLines = lines;
+                int chunkStart = firstLine;
+                chunks.add(executor.submit(() -> validator.validate(chunkLines, chunkStart)));
+            }
+            // Chunks are collected in file order, so bill ids follow the order of the rows
+            for (Future<Chunk> future : chunks) {
+                Chunk chunk = future.get();
+                accepted.addAll(chunk.accepted);
+                rejected.addAll(chunk.rejected);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import of " + file + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to validate " + file + ": " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (!accepted.isEmpty()) {
+            int nextId = FileManager.allocateBillIds(accepted.size());
+            for (Bill bill : accepted) {
+                bill.setBillId(nextId++);
+            }
+            FileManager.appendBills(accepted);
+        }
+
+        Path reportFile = null;
+        if (!rejected.isEmpty()) {
+            reportFile = file.resolveSibling(file.getFileName() + ".rejected.csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+                writer.write("line,reason,row");
+                writer.newLine();
+                for (String row : rejected) {
+                    writer.write(row);
+                    writer.newLine();
+                }
+            }
+        }
+        System.out.println("Imported " + accepted.size() + " bills from " + file + ", rejected " + rejected.size());
+        return new Report(accepted.size(), rejected.size(), reportFile);
+    }
+
+    public static class Report {
+        private final int importedCount;
+        private final int rejectedCount;
+        private final Path rejectedReport;
+
+        Report(int importedCount, int rejectedCount, Path rejectedReport) {
+            this.importedCount = importedCount;
+            this.rejectedCount = rejectedCount;
+            this.rejectedReport = rejectedReport;
+        }
+
+        public int getImportedCount() {
+            return importedCount;
+        }
+
+        public int getRejectedCount() {
+            return rejectedCount;
+        }
+
+        /** The rejected rows with their line numbers and reasons, or null when every row was accepted. */
+        public Path getRejectedReport() {
+            return rejectedReport;
+        }
+    }
+
+    private static class Chunk {
+        final List<Bill> accepted = new ArrayList<>();
+        final List<String> rejected = new ArrayList<>();
+    }
+
+    // Only reads the user maps, so one instance is shared by all worker threads
+    private static class Validator {
+        private final IntObjectMap<Customer> customers;
+        private final IntObjectMap<Company> companies;
+        private final int companyId;
+        private final ZoneId zone = ZoneId.systemDefault();
+        private final LocalDate latestDate = LocalDate.now().plusYears(MAX_YEARS_AHEAD);
+        private final LocalDate earliestDate = LocalDate.of(1970, 1, 1);
+
+        Validator(IntObjectMap<Customer> customers, IntObjectMap<Company> companies, int companyId) {
+            this.customers = customers;
+            this.companies = companies;
+            this.companyId = companyId;
+        }
+
+        Chunk validate(List<String> lines, int firstLine) {
+            Chunk chunk = new Chunk();
+            // A month of bills uses few distinct dates, so each is parsed once per chunk
+            Map<String, LocalDate> dates = new HashMap<>();
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                int lineNumber = firstLine + i;
+                if (line.isBlank() || (lineNumber == 1 && isHeader(line))) continue;
+                try {
+                    chunk.accepted.add(parse(line, dates));
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    chunk.rejected.add(lineNumber + "," + quote(e.getMessage()) + "," + quote(line));
+                }
+            }
+            return chunk;
+        }
+
+        private Bill parse(String line, Map<String, LocalDate> dates) {
+            String[] parts = line.split(",", -1);
+            if (parts.length != 5 && parts.length != 6) {
+                throw new IllegalArgumentException("Expected 5 or 6 fields but found " + parts.length);
+            }
+            int customerId = parseId(parts[0], "customer");
+            int billCompanyId = parseId(parts[1], "company");
+            Customer customer = customers.get(customerId);
+            if (customer == null) throw new IllegalArgumentException("Unknown customer ID " + customerId);
+            Company company = companies.get(billCompanyId);
+            if (company == null) throw new IllegalArgumentException("Unknown company ID " + billCompanyId);
+            if (companyId >= 0 && billCompanyId != companyId) {
+                throw new IllegalArgumentException("Bill belongs to another company: " + billCompanyId);
+            }
+
+            double amount;
+            try {
+                amount = Double.parseDouble(parts[2].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid amount: " + parts[2]);
+            }
+            if (!(amount > 0) || Double.isInfinite(amount)) {
+                throw new IllegalArgumentException("Amount must be positive: " + parts[2]);
+            }
+
+            LocalDate date = parseDate(parts[3].trim(), dates);
+            LocalDate dueDate = parseDate(parts[4].trim(), dates);
+            if (date.isBefore(earliestDate) || date.isAfter(latestDate)) {
+                throw new IllegalArgumentException("Bill date out of range: " + date);
+            }
+            if (dueDate.isBefore(date)) {
+                throw new IllegalArgumentException("Due date " + dueDate + " is before bill date " + date);
+            }
+
+            boolean paid = false;
+            if (parts.length == 6 && !parts[5].isBlank()) {
+                String flag = parts[5].trim();
+                if (!flag.equalsIgnoreCase("true") && !flag.equalsIgnoreCase("false")) {
+                    throw new IllegalArgumentException("Paid must be true or false: " + flag);
+                }
+                paid = Boolean.parseBoolean(flag);
+            }
+            return new Bill(0, amount, customerId, billCompanyId, customer.getName(), company.getName(),
+                    date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                    dueDate.atStartOfDay(zone).toInstant().toEpochMilli(), paid);
+        }
+
+        private static LocalDate parseDate(String field, Map<String, LocalDate> dates) {
+            LocalDate date = dates.get(field);
+            if (date == null) {
+                date = LocalDate.parse(field);
+                dates.put(field, date);
+            }
+            return date;
+        }
+
+        private static int parseId(String field, String kind) {
+            try {
+                return Integer.parseInt(field.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + kind + " ID: " + field);
+            }
+        }
+
+        private static boolean isHeader(String line) {
+            return !line.isEmpty() && !Character.isDigit(line.trim().charAt(0));
+        }
+
+        private static String quote(String value) {
+            return "\"" + String.valueOf(value).replace("\"", "\"\"") + "\"";
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package billing.management.system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * In-memory lookup structures over the cached bills: bill id to bill, customer id and company id
+ * to their bills, and bill date order over all bills. Date order for a single customer or company
+ * is built the first time that user's bills are queried by date and maintained from then on.
+ * FileManager keeps it in step with every append, status change and delete.
+ * Lookups may run concurrently with each other but not with changes; date lookups build and merge
+ * date order lazily, so they are synchronized among themselves.
+ */
+public class BillIndex {
+    private final IntObjectMap<Bucket> byId = new IntObjectMap<>();
+    private final IntObjectMap<Bucket> byCustomer = new IntObjectMap<>();
+    private final IntObjectMap<Bucket> byCompany = new IntObjectMap<>();
+    private final BillDateIndex byDate = new BillDateIndex();
+    private final IntObjectMap<BillDateIndex> customerByDate = new IntObjectMap<>();
+    private final IntObjectMap<BillDateIndex> companyByDate = new IntObjectMap<>();
+
+    public void rebuild(List<Bill> bills) {
+        byId.clear();
+        byCustomer.clear();
+        byCompany.clear();
+        customerByDate.clear();
+        companyByDate.clear();
+        for (Bill bill : bills) {
+            byId.computeIfAbsent(bill.getBillId(), key -> new Bucket()).add(bill);
+            byCustomer.computeIfAbsent(bill.getCustomerId(), key -> new Bucket()).add(bill);
+            byCompany.computeIfAbsent(bill.getCompanyId(), key -> new Bucket()).add(bill);
+        }
+        byDate.rebuild(bills);
+    }
+
+    public void add(Bill bill) {
+        byId.computeIfAbsent(bill.getBillId(), key -> new Bucket()).add(bill);
+        byCustomer.computeIfAbsent(bill.getCustomerId(), key -> new Bucket()).add(bill);
+        byCompany.computeIfAbsent(bill.getCompanyId(), key -> new Bucket()).add(bill);
+        byDate.add(bill);
+        BillDateIndex customerDates = customerByDate.get(bill.getCustomerId());
+        if (customerDates != null) customerDates.add(bill);
+        BillDateIndex companyDates = companyByDate.get(bill.getCompanyId());
+        if (companyDates != null) companyDates.add(bill);
+    }
+
+    /**
+     * Removes the bills in {@code removed}, a set compared by identity. Each bucket and date order
+     * they are in is filtered once, however many of its bills go.
+     */
+    public void removeAll(Set<Bill> removed) {
+        if (removed.isEmpty()) return;
+        removeFrom(byId, removed, Bill::getBillId);
+        removeFrom(byCustomer, removed, Bill::getCustomerId);
+        removeFrom(byCompany, removed, Bill::getCompanyId);
+        byDate.removeAll(removed);
+        removeFromDates(customerByDate, removed, Bill::getCustomerId);
+        removeFromDates(companyByDate, removed, Bill::getCompanyId);
+    }
+
+    /** Puts {@code updated} in the place of {@code old}, which has the same id, users and date. */
+    public void replace(Bill old, Bill updated) {
+        replaceIn(byId, old.getBillId(), old, updated);
+        replaceIn(byCustomer, old.getCustomerId(), old, updated);
+        replaceIn(byCompany, old.getCompanyId(), old, updated);
+        byDate.replace(old, updated);
+        BillDateIndex customerDates = customerByDate.get(old.getCustomerId());
+        if (customerDates != null) customerDates.replace(old, updated);
+        BillDateIndex companyDates = companyByDate.get(old.getCompanyId());
+        if (companyDates != null) companyDates.replace(old, updated);
+    }
+
+    /** Bills dated from {@code from} (inclusive) to {@code until} (exclusive) in epoch milliseconds, oldest first. */
+    public synchronized List<Bill> billsBetween(long from, long until) {
+        return byDate.between(from, until);
+    }
+
+    public synchronized List<Bill> customerBillsBetween(int customerId, long from, long until) {
+        return customerByDate.computeIfAbsent(customerId, key -> new BillDateIndex(customerBills(key))).between(from, until);
+    }
+
+    public synchronized List<Bill> companyBillsBetween(int companyId, long from, long until) {
+        return companyByDate.computeIfAbsent(companyId, key -> new BillDateIndex(companyBills(key))).between(from, until);
+    }
+
+    /** First bill with the id; ids written before ids were allocated centrally may repeat. */
+    public Bill findById(int billId) {
+        Bucket bucket = byId.get(billId);
+        return bucket != null ? bucket.get(0) : null;
+    }
+
+    public List<Bill> findAllById(int billId) {
+        return copyOf(byId.get(billId));
+    }
+
+    public List<Bill> customerBills(int customerId) {
+        return copyOf(byCustomer.get(customerId));
+    }
+
+    public List<Bill> companyBills(int companyId) {
+        return copyOf(byCompany.get(companyId));
+    }
+
+    public int customerBillCount(int customerId) {
+        Bucket bucket = byCustomer.get(customerId);
+        return bucket != null ? bucket.size : 0;
+    }
+
+    public int companyBillCount(int companyId) {
+        Bucket bucket = byCompany.get(companyId);
+        return bucket != null ? bucket.size : 0;
+    }
+
+    private static void removeFrom(IntObjectMap<Bucket> map, Set<Bill> removed, ToIntFunction<Bill> key) {
+        Set<Bucket> filtered = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Bill bill : removed) {
+            int id = key.applyAsInt(bill);
+            Bucket bucket = map.get(id);
+            if (bucket != null && filtered.add(bucket)) {
+                bucket.removeAll(removed);
+                if (bucket.size == 0) map.remove(id);
+            }
+        }
+    }
+
+    private static void removeFromDates(IntObjectMap<BillDateIndex> map, Set<Bill> removed, ToIntFunction<Bill> key) {
+        Set<BillDateIndex> filtered = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Bill bill : removed) {
+            BillDateIndex dates = map.get(key.applyAsInt(bill));
+            if (dates != null && filtered.add(dates)) dates.removeAll(removed);
+        }
+    }
+
+    private static void replaceIn(IntObjectMap<Bucket> map, int key, Bill old, Bill updated) {
+        Bucket bucket = map.get(key);
+        if (bucket != null) bucket.replace(old, updated);
+    }
+
+    private static List<Bill> copyOf(Bucket bucket) {
+        // Callers may add to the list, e.g. to merge a user's customer and company bills
+        if (bucket == null) return new ArrayList<>();
+        List<Bill> bills = new ArrayList<>(bucket.size);
+        for (int i = 0; i < bucket.size; i++) {
+            bills.add(bucket.bills[i]);
+        }
+        return bills;
+    }
+
+    private static class Bucket {
+        private Bill[] bills = new Bill[2];
+        private int size;
+
+        void add(Bill bill) {
+            if (size == bills.length) bills = Arrays.copyOf(bills, size * 2);
+            bills[size++] = bill;
+        }
+
+        Bill get(int index) {
+            return index < size ? bills[index] : null;
+        }
+
+        void replace(Bill old, Bill updated) {
+            for (int i = 0; i < size; i++) {
+                if (bills[i] == old) {
+                    bills[i] = updated;
+                    return;
+                }
+            }
+        }
+
+        void removeAll(Set<Bill> removed) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!removed.contains(bills[i])) bills[kept++] = bills[i];
+            }
+            Arrays.fill(bills, kept, size, null);
+            size = kept;
+        }
+    }
+}
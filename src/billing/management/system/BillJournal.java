@@ -0,0 +1,389 @@
+package billing.management.system;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Append-only log of bill changes kept next to the base bills file.
+ * Every record is one line: {@code A|<bill data>} for a new bill,
+ * {@code S|billId|isPaid} for a status change, {@code D|billId} for a deleted bill,
+ * {@code U|userId} for the bills a deleted user had up to that record and {@code R|userId|name} for a rename.
+ * Compaction folds the records back into the base file on a background thread.
+ * Records are written by a {@link GroupCommitWriter}, so concurrent appends share writes and forces.
+ */
+public class BillJournal {
+    public static final char APPEND = 'A';
+    public static final char STATUS = 'S';
+    public static final char DELETE = 'D';
+    public static final char DELETE_USER = 'U';
+    public static final char RENAME = 'R';
+
+    private final Path baseFile;
+    private final Path journalFile;
+    private final Path rotatedFile;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bill-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pendingCompaction;
+    private int recordCount = 0;
+    private FileState baseState = FileState.MISSING;
+    private FileState journalState = FileState.MISSING;
+    private FileState rotatedState = FileState.MISSING;
+    // isInSync looks at the files at most this often and trusts the last look in between, so the
+    // frequent callers cost a clock read; changes made outside the application show up within it
+    private static final long SYNC_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private volatile long lastSyncCheck = System.nanoTime() - SYNC_CHECK_INTERVAL_NANOS;
+    private final GroupCommitWriter writer;
+
+    public BillJournal(String baseFileName) {
+        this.baseFile = Paths.get(baseFileName);
+        this.journalFile = Paths.get(baseFileName + ".journal");
+        this.rotatedFile = Paths.get(baseFileName + ".journal.old");
+        this.writer = new GroupCommitWriter(this, journalFile, GroupCommitWriter.FlushPolicy.perRecord(),
+                () -> journalState = FileState.of(journalFile));
+    }
+
+    public void setFlushPolicy(GroupCommitWriter.FlushPolicy policy) {
+        writer.setFlushPolicy(policy);
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    public void append(String record) throws IOException {
+        appendAll(Collections.singletonList(record));
+    }
+
+    /** Appends the records and waits until they are on disk. */
+    public void appendAll(List<String> records) throws IOException {
+        if (records.isEmpty()) return;
+        await(submit(records));
+    }
+
+    /**
+     * Queues an {@link #APPEND} record for each bill to go out in one write, without building the
+     * records up front; see {@link #submit(List)}.
+     */
+    public CompletableFuture<Void> submitBills(List<Bill> bills) {
+        return submit(new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return appendRecord(bills.get(index));
+            }
+
+            @Override
+            public int size() {
+                return bills.size();
+            }
+        });
+    }
+
+    /**
+     * Queues the records for the writer thread and returns a future that completes once they are
+     * on disk, as decided by the flush policy. Records count towards compaction right away.
+     */
+    public synchronized CompletableFuture<Void> submit(List<String> records) {
+        recordCount += records.size();
+        return writer.submit(records);
+    }
+
+    /** Waits for a future from {@link #submit(List)}; call it without holding locks the writer may need. */
+    public static void await(CompletableFuture<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the journal write", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /** Remembers the current size and modification time of the base file and both journals. */
+    public synchronized void markSynced() {
+        baseState = FileState.of(baseFile);
+        journalState = FileState.of(journalFile);
+        rotatedState = FileState.of(rotatedFile);
+        lastSyncCheck = System.nanoTime();
+    }
+
+    /**
+     * False when any of the files changed since the last {@link #markSynced()} other than through
+     * this journal. Within a second of the last look that found them in sync it answers true
+     * without touching the files.
+     */
+    public boolean isInSync() {
+        if (System.nanoTime() - lastSyncCheck < SYNC_CHECK_INTERVAL_NANOS) return true;
+        synchronized (this) {
+            // The writer may be partway through a write of its own, which it records when done
+            boolean inSync = baseState.equals(FileState.of(baseFile))
+                    && (writer.isWriting() || journalState.equals(FileState.of(journalFile)))
+                    && rotatedState.equals(FileState.of(rotatedFile));
+            if (inSync) lastSyncCheck = System.nanoTime();
+            return inSync;
+        }
+    }
+
+    public static String appendRecord(Bill bill) {
+        return APPEND + "|" + bill.toDataString();
+    }
+
+    public static String statusRecord(int billId, boolean isPaid) {
+        return STATUS + "|" + billId + "|" + isPaid;
+    }
+
+    public static String deleteRecord(int billId) {
+        return DELETE + "|" + billId;
+    }
+
+    public static String deleteUserRecord(int userId) {
+        return DELETE_USER + "|" + userId;
+    }
+
+    public static String renameRecord(int userId, String name) {
+        return RENAME + "|" + userId + "|" + name;
+    }
+
+    /**
+     * Applies the rotated journal (left behind by an unfinished compaction) and then the live journal
+     * to bills loaded from the base file. Appended bills are parsed with {@code billParser}, which
+     * returns null for lines it rejects.
+     */
+    public synchronized int replay(List<Bill> bills, Function<String, Bill> billParser) {
+        writer.drain();
+        Map<Integer, List<Bill>> byId = new HashMap<>();
+        for (Bill bill : bills) {
+            byId.computeIfAbsent(bill.getBillId(), id -> new ArrayList<>(1)).add(bill);
+        }
+        Set<Bill> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        // Bills by customer and company id, built on the first deleted user
+        Map<Integer, List<Bill>> byUser = null;
+        int replayed = 0;
+
+        for (Path file : new Path[] {rotatedFile, journalFile}) {
+            if (!Files.exists(file)) continue;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.length() < 2 || line.charAt(1) != '|') {
+                        if (!line.trim().isEmpty()) {
+                            System.err.println("Skipping invalid journal record at " + file + ":" + lineNumber + ": " + line);
+                        }
+                        continue;
+                    }
+                    String payload = line.substring(2);
+                    try {
+                        switch (line.charAt(0)) {
+                            case APPEND: {
+                                Bill bill = billParser.apply(payload);
+                                if (bill == null) break;
+                                List<Bill> existing = byId.get(bill.getBillId());
+                                if (existing != null && !existing.isEmpty()) {
+                                    // Already folded into the base file by a compaction that did not finish cleaning up
+                                    break;
+                                }
+                                bills.add(bill);
+                                byId.computeIfAbsent(bill.getBillId(), id -> new ArrayList<>(1)).add(bill);
+                                if (byUser != null) addByUser(byUser, bill);
+                                break;
+                            }
+                            case STATUS: {
+                                String[] parts = payload.split("\\|");
+                                List<Bill> matches = byId.get(Integer.parseInt(parts[0]));
+                                if (matches != null && !matches.isEmpty()) {
+                                    matches.get(0).setIspaid(Boolean.parseBoolean(parts[1]));
+                                }
+                                break;
+                            }
+                            case DELETE: {
+                                List<Bill> matches = byId.remove(Integer.parseInt(payload));
+                                if (matches != null) removed.addAll(matches);
+                                break;
+                            }
+                            case DELETE_USER: {
+                                // Only the bills seen so far: user ids are reused, and later records may
+                                // add bills for a new user with the same id
+                                if (byUser == null) {
+                                    byUser = new HashMap<>();
+                                    for (Bill bill : bills) {
+                                        if (!removed.contains(bill)) addByUser(byUser, bill);
+                                    }
+                                }
+                                List<Bill> matches = byUser.remove(Integer.parseInt(payload));
+                                if (matches == null) break;
+                                for (Bill bill : matches) {
+                                    if (!removed.add(bill)) continue;
+                                    List<Bill> sameId = byId.get(bill.getBillId());
+                                    if (sameId != null) sameId.removeIf(other -> other == bill);
+                                }
+                                break;
+                            }
+                            case RENAME: {
+                                int separator = payload.indexOf('|');
+                                NameDictionary.rename(Integer.parseInt(payload.substring(0, separator)), payload.substring(separator + 1));
+                                break;
+                            }
+                            default:
+                                System.err.println("Skipping unknown journal record at " + file + ":" + lineNumber + ": " + line);
+                                continue;
+                        }
+                        replayed++;
+                    } catch (Exception e) {
+                        System.err.println("Skipping invalid journal record at " + file + ":" + lineNumber + ": " + line + ", Error: " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error reading journal " + file + ": " + e.getMessage());
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            bills.removeIf(removed::contains);
+        }
+        recordCount = replayed;
+        if (replayed > 0) {
+            System.out.println("Replayed " + replayed + " journal records onto " + baseFile);
+        }
+        return replayed;
+    }
+
+    private static void addByUser(Map<Integer, List<Bill>> byUser, Bill bill) {
+        byUser.computeIfAbsent(bill.getCustomerId(), id -> new ArrayList<>()).add(bill);
+        if (bill.getCompanyId() != bill.getCustomerId()) {
+            byUser.computeIfAbsent(bill.getCompanyId(), id -> new ArrayList<>()).add(bill);
+        }
+    }
+
+    /**
+     * Starts folding the journal into the base file. The live journal is rotated aside right away so
+     * new records keep appending while {@code bills} (a snapshot taken together with the rotation)
+     * is written out in the background.
+     */
+    public synchronized void compact(List<Bill> bills, BillFileWriter writer) throws IOException {
+        if (pendingCompaction != null && !pendingCompaction.isDone()) {
+            return;
+        }
+        rotate();
+        pendingCompaction = compactor.submit(() -> {
+            Path tempFile = baseFile.resolveSibling(baseFile.getFileName() + ".tmp");
+            try {
+                writer.write(tempFile, bills);
+                synchronized (this) {
+                    Files.move(tempFile, baseFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    Files.deleteIfExists(rotatedFile);
+                    baseState = FileState.of(baseFile);
+                    rotatedState = FileState.MISSING;
+                }
+                System.out.println("Compacted journal into " + baseFile + ", count: " + bills.size());
+            } catch (IOException e) {
+                System.err.println("Error compacting journal into " + baseFile + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public void awaitCompaction() {
+        Future<?> compaction;
+        synchronized (this) {
+            compaction = pendingCompaction;
+        }
+        if (compaction == null) return;
+        try {
+            compaction.get();
+        } catch (Exception e) {
+            System.err.println("Error waiting for journal compaction: " + e.getMessage());
+        }
+    }
+
+    /** Drops all records once the base file has been rewritten in full. */
+    public synchronized void clear() throws IOException {
+        writer.drain();
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(rotatedFile);
+        recordCount = 0;
+        markSynced();
+    }
+
+    private void rotate() throws IOException {
+        // Queued records are already part of the snapshot being compacted, so they belong to this journal
+        writer.drain();
+        if (!Files.exists(journalFile)) {
+            recordCount = 0;
+            journalState = FileState.MISSING;
+            return;
+        }
+        if (Files.exists(rotatedFile)) {
+            // A previous compaction failed; keep its records ahead of the newer ones
+            Files.write(rotatedFile, Files.readAllBytes(journalFile), StandardOpenOption.APPEND);
+            Files.delete(journalFile);
+        } else {
+            Files.move(journalFile, rotatedFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+        recordCount = 0;
+        journalState = FileState.MISSING;
+        rotatedState = FileState.of(rotatedFile);
+    }
+
+    private static final class FileState {
+        static final FileState MISSING = new FileState(-1, -1);
+
+        private final long size;
+        private final long modified;
+
+        private FileState(long size, long modified) {
+            this.size = size;
+            this.modified = modified;
+        }
+
+        static FileState of(Path file) {
+            try {
+                return new FileState(Files.size(file), Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException e) {
+                return MISSING;
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof FileState state && state.size == size && state.modified == modified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(modified);
+        }
+    }
+
+    @FunctionalInterface
+    public interface BillFileWriter {
+        void write(Path file, List<Bill> bills) throws IOException;
+    }
+}
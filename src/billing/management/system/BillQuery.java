@@ -0,0 +1,159 @@
+package billing.management.system;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * Date-range and status filter over the columnar bill table that produces everything the bill
+ * analytics screen shows: the matching bills for paging, the summary statistics, the payment
+ * status counts and the monthly revenue series. The table is in date order, so the date range is
+ * a range of rows found by binary search, and each figure is a tight scan over one or two
+ * primitive columns. Amounts are summed in cents.
+ */
+public class BillQuery {
+    public static final String ALL = "All Bills";
+    public static final String PAID = "Paid";
+    public static final String UNPAID = "Unpaid";
+    public static final String OVERDUE = "Overdue";
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMM yyyy", Locale.getDefault());
+
+    private final long from;
+    private final long until;
+    private final String status;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /** Either date may be null for an open range; both ends are inclusive days. */
+    public BillQuery(LocalDate startDate, LocalDate endDate, String status) {
+        this.from = startDate != null ? startOfDay(startDate) : Long.MIN_VALUE;
+        this.until = endDate != null ? startOfDay(endDate.plusDays(1)) : Long.MAX_VALUE;
+        this.status = status != null ? status : ALL;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getUntil() {
+        return until;
+    }
+
+    public Result run(BillColumns columns) {
+        long overdueBefore = startOfDay(LocalDate.now(zone));
+        int fromRow = columns.lowerBound(from);
+        int untilRow = until == Long.MAX_VALUE ? columns.size() : columns.lowerBound(until);
+        int[] rows = new int[untilRow - fromRow];
+        int size = columns.select(fromRow, untilRow, statusFilter(), overdueBefore, rows);
+        Result result = new Result(columns, rows, size);
+
+        if (size == rows.length) {
+            // Every row in the range matched, so the sums run straight over the columns
+            result.totalCents = columns.sumCents(fromRow, untilRow);
+            result.paidCount = columns.countPaid(fromRow, untilRow);
+            result.overdueCount = columns.countOverdue(fromRow, untilRow, overdueBefore);
+        } else {
+            result.totalCents = columns.sumCents(rows, size);
+            result.paidCount = columns.countPaid(rows, size);
+            result.overdueCount = columns.countOverdue(rows, size, overdueBefore);
+        }
+        result.unpaidCount = size - result.paidCount;
+
+        Map<YearMonth, Long> monthly = new TreeMap<>();
+        columns.sumCentsByMonth(rows, size, zone, monthly);
+        monthly.forEach((key, cents) -> result.monthlyRevenue.put(MONTH_FORMAT.format(key), cents / 100.0));
+        return result;
+    }
+
+    private BillColumns.Status statusFilter() {
+        switch (status) {
+            case PAID:
+                return BillColumns.Status.PAID;
+            case UNPAID:
+                return BillColumns.Status.UNPAID;
+            case OVERDUE:
+                return BillColumns.Status.OVERDUE;
+            default:
+                return BillColumns.Status.ALL;
+        }
+    }
+
+    private long startOfDay(LocalDate date) {
+        return date.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /** Matches are kept as rows of the queried table, which never changes once built. */
+    public static class Result {
+        private final BillColumns columns;
+        private final int[] rows;
+        private final int size;
+        private final Map<String, Double> monthlyRevenue = new LinkedHashMap<>();
+        private long totalCents;
+        private int paidCount;
+        private int unpaidCount;
+        private int overdueCount;
+
+        private Result(BillColumns columns, int[] rows, int size) {
+            this.columns = columns;
+            this.rows = rows;
+            this.size = size;
+        }
+
+        /** The matching bills as a read-only view that looks each bill up when it is read. */
+        public List<Bill> getBills() {
+            return new MatchList();
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public double getTotal() {
+            return totalCents / 100.0;
+        }
+
+        public double getAverage() {
+            return size == 0 ? 0 : getTotal() / size;
+        }
+
+        public int getPaidCount() {
+            return paidCount;
+        }
+
+        public int getUnpaidCount() {
+            return unpaidCount;
+        }
+
+        public int getOverdueCount() {
+            return overdueCount;
+        }
+
+        /** Revenue per month in chronological order, keyed by labels such as "Jan 2025". */
+        public Map<String, Double> getMonthlyRevenue() {
+            return Collections.unmodifiableMap(monthlyRevenue);
+        }
+
+        private class MatchList extends AbstractList<Bill> implements RandomAccess {
+            @Override
+            public Bill get(int index) {
+                Objects.checkIndex(index, size);
+                return columns.bill(rows[index]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        }
+    }
+}
@@ -19,6 +19,11 @@ public class BillingMangementSystem extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        DataAccess.shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
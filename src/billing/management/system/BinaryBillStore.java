@@ -0,0 +1,223 @@
+package billing.management.system;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary bills file with fixed-width records, read in bulk without any text parsing.
+ *
+ * <p>Layout, big-endian: a header of magic {@code BILB}, format version, record count and name
+ * count (four ints); a dictionary with each distinct customer and company name once, as a byte
+ * length and UTF-8 bytes; then one {@value #RECORD_SIZE}-byte record per bill: bill id, customer
+ * id, company id, customer name and company name as dictionary positions (-1 for none), amount,
+ * date and due date in epoch milliseconds, and a flag byte. Amounts are stored in cents; the rare
+ * amount that is not a whole number of cents keeps its exact double bits and sets
+ * {@link #FLAG_RAW_AMOUNT}, so converting from and back to the text format loses nothing.
+ */
+public class BinaryBillStore {
+    private static final int MAGIC = 0x42494C42;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 45;
+    // 64 MB of records per mapped window
+    private static final int RECORDS_PER_WINDOW = 64 * 1024 * 1024 / RECORD_SIZE;
+    private static final int FLAG_PAID = 1;
+    private static final int FLAG_RAW_AMOUNT = 2;
+
+    public static List<Bill> read(Path path) throws IOException {
+        return read(path, RECORDS_PER_WINDOW);
+    }
+
+    static List<Bill> read(Path path, int recordsPerWindow) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedWindow window = new MappedWindow(channel, (long) recordsPerWindow * RECORD_SIZE);
+            if (window.size < HEADER_SIZE) {
+                throw new IOException(path + " is too short for a binary bills file");
+            }
+            ByteBuffer buffer = window.ensure(HEADER_SIZE);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(path + " is not a binary bills file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary bills format version " + version + " in " + path);
+            }
+            int recordCount = buffer.getInt();
+            int nameCount = buffer.getInt();
+
+            String[] names = new String[nameCount];
+            byte[] scratch = new byte[64];
+            for (int i = 0; i < nameCount; i++) {
+                if (window.remaining() < 4) {
+                    throw new IOException("Corrupt name dictionary in " + path + " at name " + i);
+                }
+                int length = window.ensure(4).getInt();
+                if (length < 0 || length > window.remaining()) {
+                    throw new IOException("Corrupt name dictionary in " + path + " at name " + i);
+                }
+                if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+                window.ensure(length).get(scratch, 0, length);
+                names[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            if (window.remaining() != (long) recordCount * RECORD_SIZE) {
+                throw new IOException(path + " holds " + window.remaining() + " record bytes, expected "
+                        + recordCount + " records of " + RECORD_SIZE + " bytes");
+            }
+
+            List<Bill> bills = new ArrayList<>(recordCount);
+            for (int i = 0; i < recordCount; i++) {
+                buffer = window.ensure(RECORD_SIZE);
+                int billId = buffer.getInt();
+                int customerId = buffer.getInt();
+                int companyId = buffer.getInt();
+                String customerName = nameAt(names, buffer.getInt(), path);
+                String companyName = nameAt(names, buffer.getInt(), path);
+                long amount = buffer.getLong();
+                long date = buffer.getLong();
+                long dueDate = buffer.getLong();
+                int flags = buffer.get();
+                double value = (flags & FLAG_RAW_AMOUNT) != 0 ? Double.longBitsToDouble(amount) : amount / 100.0;
+                bills.add(new Bill(billId, value, customerId, companyId, customerName, companyName,
+                        date, dueDate, (flags & FLAG_PAID) != 0));
+            }
+            return bills;
+        }
+    }
+
+    /**
+     * Maps the file one window at a time, since a single mapping cannot exceed 2 GB. A new window
+     * starts wherever reading has got to, so during the records it starts on a record boundary
+     * and, being a whole number of records long, ends on one too.
+     */
+    private static final class MappedWindow {
+        private final FileChannel channel;
+        private final long size;
+        private final long windowSize;
+        private long start;
+        private ByteBuffer buffer = ByteBuffer.allocate(0);
+
+        MappedWindow(FileChannel channel, long windowSize) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.windowSize = windowSize;
+        }
+
+        /** Bytes left in the file after the current position. */
+        long remaining() {
+            return size - start - buffer.position();
+        }
+
+        /** The current window, remapped first if fewer than {@code bytes} bytes are left in it. */
+        ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) return buffer;
+            long position = start + buffer.position();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, Math.max(windowSize, bytes)));
+            start = position;
+            return buffer;
+        }
+    }
+
+    private static String nameAt(String[] names, int position, Path path) throws IOException {
+        if (position == -1) return null;
+        if (position < 0 || position >= names.length) {
+            throw new IOException("Name reference " + position + " out of range in " + path);
+        }
+        return names[position];
+    }
+
+    /** Writes the bills, skipping any without a date or due date as the text format does. */
+    public static void write(Path path, List<Bill> bills) throws IOException {
+        List<Bill> written = new ArrayList<>(bills.size());
+        Map<String, Integer> positions = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (Bill bill : bills) {
+            if (bill.getDateMillis() == Bill.NO_DATE || bill.getDueDateMillis() == Bill.NO_DATE) {
+                System.err.println("Null date detected for bill ID " + bill.getBillId() + "; skipping write");
+                continue;
+            }
+            written.add(bill);
+            for (String name : new String[] {bill.getCustomerName(), bill.getCompanyName()}) {
+                if (name != null && !positions.containsKey(name)) {
+                    positions.put(name, names.size());
+                    names.add(name);
+                }
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(written.size());
+            out.writeInt(names.size());
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            for (Bill bill : written) {
+                out.writeInt(bill.getBillId());
+                out.writeInt(bill.getCustomerId());
+                out.writeInt(bill.getCompanyId());
+                out.writeInt(bill.getCustomerName() != null ? positions.get(bill.getCustomerName()) : -1);
+                out.writeInt(bill.getCompanyName() != null ? positions.get(bill.getCompanyName()) : -1);
+                int flags = bill.isIspaid() ? FLAG_PAID : 0;
+                long cents = Math.round(bill.getValue() * 100);
+                if (Double.compare(cents / 100.0, bill.getValue()) == 0) {
+                    out.writeLong(cents);
+                } else {
+                    out.writeLong(Double.doubleToRawLongBits(bill.getValue()));
+                    flags |= FLAG_RAW_AMOUNT;
+                }
+                out.writeLong(bill.getDateMillis());
+                out.writeLong(bill.getDueDateMillis());
+                out.writeByte(flags);
+            }
+        }
+    }
+
+    /** Converts a pipe-delimited bills file; lines the loader would skip are skipped here too. */
+    public static int convertFromText(Path textFile, Path binaryFile) throws IOException {
+        List<Bill> bills = new MappedBillReader().read(textFile);
+        write(binaryFile, bills);
+        System.out.println("Converted " + bills.size() + " bills from " + textFile + " to " + binaryFile);
+        return bills.size();
+    }
+
+    public static int convertToText(Path binaryFile, Path textFile) throws IOException {
+        List<Bill> bills = read(binaryFile);
+        try (BufferedWriter writer = Files.newBufferedWriter(textFile, StandardCharsets.UTF_8)) {
+            for (Bill bill : bills) {
+                writer.write(bill.toDataString());
+                writer.newLine();
+            }
+        }
+        System.out.println("Converted " + bills.size() + " bills from " + binaryFile + " to " + textFile);
+        return bills.size();
+    }
+
+    /** {@code to-binary <bills.txt> <bills.bin>} or {@code to-text <bills.bin> <bills.txt>}. */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("to-binary")) {
+            convertFromText(Paths.get(args[1]), Paths.get(args[2]));
+        } else if (args.length == 3 && args[0].equals("to-text")) {
+            convertToText(Paths.get(args[1]), Paths.get(args[2]));
+        } else {
+            System.err.println("Usage: BinaryBillStore to-binary <text file> <binary file>");
+            System.err.println("       BinaryBillStore to-text <binary file> <text file>");
+            System.exit(2);
+        }
+    }
+}
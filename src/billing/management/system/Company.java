@@ -1,17 +1,11 @@
 package billing.management.system;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Company extends User {
-    private List<Bill> billslist;
     private String industry;
 
     public Company(String name, String password, int id, String email, String industry) {
         super(name, password, id, email);
         this.industry = industry;
-        this.billslist = new ArrayList<>();
-        updateBills();
     }
 
     public String getIndustry() {
@@ -22,25 +16,16 @@ public class Company extends User {
         this.industry = industry;
     }
     
-    private void updateBills() {
-        this.billslist = new ArrayList<>(FileManager.loadBills().stream()
-                .filter(bill -> bill.getCompanyId() == this.getId())
-                .toList());
-        billslist.size();
-        getTotalrevenu();
-    }
-
-
     public int getTotalBills() {
-        return billslist.size();
+        return FileManager.getCompanyTotals(getId()).getCount();
     }
 
     public double getTotalrevenu() {
-        double sum = 0;
-        for (Bill bill : billslist) {
-            sum += bill.getValue();
-        }
-        return sum;
+        return FileManager.getCompanyTotals(getId()).getTotal();
+    }
+
+    public double getPaidRevenue() {
+        return FileManager.getCompanyTotals(getId()).getPaidTotal();
     }
 
     @Override
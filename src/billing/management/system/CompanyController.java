@@ -2,12 +2,15 @@ package billing.management.system;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -16,10 +19,11 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import java.text.SimpleDateFormat;
+import java.io.File;
 import java.io.IOException;
 
 public class CompanyController {
@@ -35,9 +39,13 @@ public class CompanyController {
     private final ObservableList<String> statusOptions = FXCollections.observableArrayList(
             "All Bills", "Paid", "Unpaid", "Overdue"
     );
-    private ObservableList<Bill> billList = FXCollections.observableArrayList();
+    // The loaded or searched bills as returned, handed to the pager without copying
+    private List<Bill> billList = Collections.emptyList();
     private User currentUser;
     private static final int ITEMS_PER_PAGE = 10;
+    private final DataAccess.Latest billRequest = new DataAccess.Latest();
+    private final SearchSession<Bill> billSearch = new SearchSession<>(billRequest, () -> FileManager.loadBills().getVersion());
+    private PagedTable<Bill> billsPager;
     
     public CompanyController() {
         this(null);
@@ -56,7 +64,7 @@ public class CompanyController {
         }
         
         if (billSearchField != null) {
-            billSearchField.textProperty().addListener((obs, oldVal, newVal) -> searchBills());
+            billSearch.watch(billSearchField, () -> searchBills(false));
             billSearchField.setOnAction(event -> searchBills());
         }
         
@@ -139,40 +147,38 @@ public class CompanyController {
             System.err.println("Warning: billsTable is null in CompanyInterface.fxml");
         }
         
+        billsPager = new PagedTable<>(billsTable, billsPagination, ITEMS_PER_PAGE);
         loadUserBills();
-        updatePagination();
     }
     
     private void loadUserBills() {
         if (currentUser == null) {
             System.err.println("No user logged in; skipping bill loading");
-            billList.clear();
-            if (billsTable != null) {
-                billsTable.setItems(billList);
-            }
+            billList = Collections.emptyList();
             updatePagination();
             return;
         }
-        try {
-            List<Bill> allBills = FileManager.loadBillsForUser(currentUser.getId());
-            billList.setAll(allBills.stream()
-                    .filter(bill -> bill.getCompanyId() == currentUser.getId())
-                    .collect(Collectors.toList()));
-            System.out.println("Loaded " + billList.size() + " bills for company ID " + currentUser.getId());
-        } catch (Exception e) {
+        int companyId = currentUser.getId();
+        Task<List<Bill>> task = billRequest.submit(() -> FileManager.loadBillsForCompany(companyId), bills -> {
+            billList = bills;
+            System.out.println("Loaded " + billList.size() + " bills for company ID " + companyId);
+            updatePagination();
+        }, e -> {
             System.err.println("Error loading bills: " + e.getMessage());
-            billList.clear();
+            billList = Collections.emptyList();
             showAlert("Error", "Failed to load bills: " + e.getMessage());
-        }
-        if (billsTable != null) {
-            billsTable.setItems(billList);
-            billsTable.refresh();
-        }
-        updatePagination();
+            updatePagination();
+        });
+        DataAccess.showLoading(billsTable, task);
     }
     
     @FXML
     private void searchBills() {
+        searchBills(true);
+    }
+
+    // Searches started by typing leave the current rows up until the results arrive
+    private void searchBills(boolean showProgress) {
         if (currentUser == null) {
             System.err.println("No user; skipping search");
             return;
@@ -185,39 +191,18 @@ public class CompanyController {
         
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
         
-        try {
-            List<Bill> filteredBills = FileManager.loadBillsForUser(currentUser.getId()).stream()
-                    .filter(bill -> bill.getCompanyId() == currentUser.getId())
-                    .filter(bill -> {
-                        if (searchTerm.isEmpty()) return true;
-                        String billIdStr = String.valueOf(bill.getBillId());
-                        String valueStr = String.format("%.2f", bill.getValue());
-                        String customerName = bill.getCustomerName() != null ? bill.getCustomerName().toLowerCase() : "";
-                        String dateStr = bill.getDate() != null ? sdf.format(bill.getDate()) : "-";
-                        String dueDateStr = bill.getDueDate() != null ? sdf.format(bill.getDueDate()) : "-";
-                        String statusStr;
-                        try {
-                            if (bill.isIspaid()) {
-                                statusStr = "paid";
-                            } else if (bill.getDueDate() == null) {
-                                statusStr = "unpaid";
-                            } else {
-                                LocalDate dueLocalDate = bill.getDueDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-                                boolean isOverdue = dueLocalDate.isBefore(LocalDate.now());
-                                statusStr = isOverdue ? "overdue" : "unpaid";
-                                System.out.println("Search: Bill ID " + bill.getBillId() + ": dueDate=" + dueLocalDate + ", isOverdue=" + isOverdue);
-                            }
-                        } catch (Exception e) {
-                            System.err.println("Error computing search status for bill ID " + bill.getBillId() + ": " + e.getMessage());
-                            statusStr = "unpaid";
-                        }
-                        return billIdStr.contains(searchTerm) || 
-                               valueStr.contains(searchTerm) || 
-                               customerName.contains(searchTerm) ||
-                               dateStr.contains(searchTerm) ||
-                               dueDateStr.contains(searchTerm) ||
-                               statusStr.contains(searchTerm);
-                    })
+        int userId = currentUser.getId();
+        Task<?> task = billSearch.submit(searchTerm, Arrays.asList(startDate, endDate, statusFilter), () -> {
+            // The date range is answered by the date index and the search text by the trigram index;
+            // the text filter below then only confirms the index candidates
+            List<Bill> candidates = startDate != null && endDate != null
+                    ? FileManager.loadBillsForCompany(userId,
+                            java.sql.Date.valueOf(startDate).getTime(), java.sql.Date.valueOf(endDate.plusDays(1)).getTime())
+                    : FileManager.loadBillsForCompany(userId);
+            int[] matchingIds = searchTerm.isEmpty() ? null : FileManager.searchBillIds(searchTerm);
+            return candidates.stream()
+                    .filter(bill -> matchingIds == null || Arrays.binarySearch(matchingIds, bill.getBillId()) >= 0)
+                    .filter(bill -> matchesSearch(bill, searchTerm, sdf))
                     .filter(bill -> {
                         if (statusFilter == null || statusFilter.equals("All Bills")) return true;
                         try {
@@ -238,58 +223,55 @@ public class CompanyController {
                             return statusFilter.equals("Unpaid");
                         }
                     })
-                    .filter(bill -> {
-                        if (startDate == null || endDate == null) return true;
-                        try {
-                            long billTime = bill.getDate().getTime();
-                            long startTime = java.sql.Date.valueOf(startDate).getTime();
-                            long endTime = java.sql.Date.valueOf(endDate.plusDays(1)).getTime();
-                            return billTime >= startTime && billTime < endTime;
-                        } catch (Exception e) {
-                            System.err.println("Error filtering date for bill ID " + bill.getBillId() + ": " + e.getMessage());
-                            return false;
-                        }
-                    })
                     .collect(Collectors.toList());
-            
-            billList.setAll(filteredBills);
+        }, bill -> matchesSearch(bill, searchTerm, sdf), filteredBills -> {
+            billList = filteredBills;
             System.out.println("Search returned " + filteredBills.size() + " bills for searchTerm='" + searchTerm + "', statusFilter='" + statusFilter + "', dateRange=" + (startDate != null ? startDate.toString() : "null") + " to " + (endDate != null ? endDate.toString() : "null"));
-            if (billsTable != null) {
-                billsTable.setItems(billList);
-                billsTable.refresh();
-            }
             updatePagination();
-        } catch (Exception e) {
+        }, e -> {
             System.err.println("Error searching bills: " + e.getMessage());
             showAlert("Error", "Failed to search bills: " + e.getMessage());
-        }
+        });
+        if (showProgress) DataAccess.showLoading(billsTable, task);
     }
     
+    private static boolean matchesSearch(Bill bill, String searchTerm, SimpleDateFormat sdf) {
+        if (searchTerm.isEmpty()) return true;
+        String billIdStr = String.valueOf(bill.getBillId());
+        String valueStr = String.format("%.2f", bill.getValue());
+        String customerName = bill.getCustomerName() != null ? bill.getCustomerName().toLowerCase() : "";
+        String dateStr = bill.getDate() != null ? sdf.format(bill.getDate()) : "-";
+        String dueDateStr = bill.getDueDate() != null ? sdf.format(bill.getDueDate()) : "-";
+        String statusStr;
+        try {
+            if (bill.isIspaid()) {
+                statusStr = "paid";
+            } else if (bill.getDueDate() == null) {
+                statusStr = "unpaid";
+            } else {
+                LocalDate dueLocalDate = bill.getDueDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+                boolean isOverdue = dueLocalDate.isBefore(LocalDate.now());
+                statusStr = isOverdue ? "overdue" : "unpaid";
+                System.out.println("Search: Bill ID " + bill.getBillId() + ": dueDate=" + dueLocalDate + ", isOverdue=" + isOverdue);
+            }
+        } catch (Exception e) {
+            System.err.println("Error computing search status for bill ID " + bill.getBillId() + ": " + e.getMessage());
+            statusStr = "unpaid";
+        }
+        return billIdStr.contains(searchTerm) || 
+               valueStr.contains(searchTerm) || 
+               customerName.contains(searchTerm) ||
+               dateStr.contains(searchTerm) ||
+               dueDateStr.contains(searchTerm) ||
+               statusStr.contains(searchTerm);
+    }
+
     private void updatePagination() {
-        if (billsPagination == null || billList == null) {
+        if (billsPager == null || billList == null) {
             System.err.println("Pagination or billList is null; skipping pagination update");
             return;
         }
-        try {
-            int pageCount = (int) Math.ceil((double) billList.size() / ITEMS_PER_PAGE);
-            billsPagination.setPageCount(pageCount == 0 ? 1 : pageCount);
-            billsPagination.setPageFactory(pageIndex -> {
-                int fromIndex = pageIndex * ITEMS_PER_PAGE;
-                int toIndex = Math.min(fromIndex + ITEMS_PER_PAGE, billList.size());
-                ObservableList<Bill> pageItems = FXCollections.observableArrayList();
-                if (fromIndex < billList.size()) {
-                    pageItems.addAll(billList.subList(fromIndex, toIndex));
-                }
-                if (billsTable != null) {
-                    billsTable.setItems(pageItems);
-                    billsTable.refresh();
-                }
-                return new VBox(billsTable != null ? billsTable : new Label("No bills to display"));
-            });
-        } catch (Exception e) {
-            System.err.println("Error updating pagination: " + e.getMessage());
-            showAlert("Error", "Failed to update bill table: " + e.getMessage());
-        }
+        billsPager.setRows(billList);
     }
     
     @FXML
@@ -314,6 +296,27 @@ public class CompanyController {
         }
     }
     
+    @FXML
+    private void importBills() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Bills");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(billsTable.getScene().getWindow());
+        if (file == null) return;
+
+        BillImporter importer = new BillImporter(FileManager.getLoaderThreads());
+        importer.setCompanyId(currentUser.getId());
+        Task<BillImporter.Report> task = DataAccess.submitBulk(() -> importer.importFile(file.toPath()), report -> {
+            loadUserBills();
+            String message = "Imported " + report.getImportedCount() + " bills.";
+            if (report.getRejectedCount() > 0) {
+                message += "\n" + report.getRejectedCount() + " rows were rejected; see " + report.getRejectedReport();
+            }
+            showAlert("Import Complete", message);
+        }, e -> showAlert("Error", "Failed to import bills: " + e.getMessage()));
+        DataAccess.showLoading(billsTable, task);
+    }
+
     @FXML
     private void deleteSelectedBills() {
         ObservableList<Bill> selectedBills = billsTable.getSelectionModel().getSelectedItems();
@@ -333,17 +336,16 @@ public class CompanyController {
         
         confirm.showAndWait().ifPresent(type -> {
             if (type == yesButton) {
-                try {
-                    List<Integer> billIds = selectedBills.stream()
-                            .map(Bill::getBillId)
-                            .collect(Collectors.toList());
-                    FileManager.deleteBills(billIds);
+                List<Integer> billIds = selectedBills.stream()
+                        .map(Bill::getBillId)
+                        .collect(Collectors.toList());
+                DataAccess.run(() -> FileManager.deleteBills(billIds), () -> {
                     loadUserBills();
                     showAlert("Success", "Selected bills deleted successfully.");
-                } catch (Exception e) {
+                }, e -> {
                     System.err.println("Error deleting bills: " + e.getMessage());
                     showAlert("Error", "Failed to delete bills: " + e.getMessage());
-                }
+                });
             }
         });
     }
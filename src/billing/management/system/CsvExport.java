@@ -0,0 +1,178 @@
+package billing.management.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import javafx.concurrent.Task;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ProgressBar;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+
+/**
+ * Writes rows to a CSV file as a background task. Each row is formatted into one reused line
+ * buffer and encoded straight into a fixed-size direct buffer that is drained to a FileChannel,
+ * so memory use does not grow with the number of rows and the rows are never copied. The file is
+ * written next to the target and moved into place only when the export completes, so a cancelled
+ * or failed export leaves no partial file behind.
+ */
+public class CsvExport<T> extends Task<Long> {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_STEP = 4096;
+
+    /** Appends the CSV fields of one row to {@code line}, without the line break. */
+    public interface RowFormatter<T> {
+        void format(T row, StringBuilder line);
+    }
+
+    private final Path target;
+    private final String header;
+    private final List<? extends T> rows;
+    private final RowFormatter<? super T> formatter;
+
+    /** {@code rows} is read on the bulk I/O thread and must not change during the export. */
+    public CsvExport(Path target, String header, List<? extends T> rows, RowFormatter<? super T> formatter) {
+        this.target = target;
+        this.header = header;
+        this.rows = rows;
+        this.formatter = formatter;
+    }
+
+    @Override
+    protected Long call() throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        StringBuilder line = new StringBuilder(256);
+        int total = rows.size();
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            line.append(header).append('\n');
+            encode(line, encoder, buffer, channel);
+            for (int i = 0; i < total; i++) {
+                if (i % PROGRESS_STEP == 0) {
+                    if (isCancelled()) break;
+                    updateProgress(i, total);
+                }
+                line.setLength(0);
+                formatter.format(rows.get(i), line);
+                line.append('\n');
+                encode(line, encoder, buffer, channel);
+                written++;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        if (isCancelled()) {
+            Files.deleteIfExists(temp);
+            return written;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        updateProgress(total, total);
+        System.out.println("Exported " + written + " rows to " + target);
+        return written;
+    }
+
+    private static void encode(CharSequence text, CharsetEncoder encoder, ByteBuffer buffer, FileChannel channel) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                buffer.flip();
+                while (buffer.hasRemaining()) channel.write(buffer);
+                buffer.clear();
+            } else if (result.isUnderflow()) {
+                encoder.reset();
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    /** Appends a field, quoting it when it contains a separator, quote or line break. */
+    public static void appendField(StringBuilder line, String value) {
+        if (value == null) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /**
+     * Asks for a target file, then exports the rows on the bulk I/O thread while a dialog shows the
+     * progress and offers to cancel.
+     */
+    public static <T> void exportWithProgress(Window owner, String title, String fileName, String header,
+                                              List<? extends T> rows, RowFormatter<? super T> formatter) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.setInitialFileName(fileName);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showSaveDialog(owner);
+        if (file == null) return;
+
+        CsvExport<T> export = new CsvExport<>(file.toPath(), header, rows, formatter);
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(300);
+        progressBar.progressProperty().bind(export.progressProperty());
+        Alert progress = new Alert(Alert.AlertType.NONE, "", ButtonType.CANCEL);
+        progress.initOwner(owner);
+        progress.setTitle(title);
+        progress.setHeaderText("Exporting " + rows.size() + " rows to " + file.getName());
+        progress.getDialogPane().setContent(progressBar);
+        progress.setOnHidden(event -> export.cancel(false));
+
+        export.setOnSucceeded(event -> {
+            progress.setOnHidden(null);
+            progress.close();
+            showResult(owner, Alert.AlertType.INFORMATION, "Data Exported",
+                    "Exported " + export.getValue() + " rows to " + file.getAbsolutePath());
+        });
+        export.setOnFailed(event -> {
+            progress.setOnHidden(null);
+            progress.close();
+            System.err.println("Error exporting to " + file + ": " + export.getException());
+            showResult(owner, Alert.AlertType.ERROR, "Export Failed", "Failed to export data: " + export.getException().getMessage());
+        });
+        export.setOnCancelled(event -> System.out.println("Export to " + file + " cancelled"));
+        DataAccess.executeBulk(export);
+        progress.show();
+    }
+
+    private static void showResult(Window owner, Alert.AlertType type, String title, String message) {
+        Alert alert = new Alert(type);
+        alert.initOwner(owner);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
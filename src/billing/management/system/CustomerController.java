@@ -2,12 +2,15 @@ package billing.management.system;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -16,7 +19,6 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import java.text.SimpleDateFormat;
 
@@ -33,9 +35,13 @@ public class CustomerController {
     private final ObservableList<String> statusOptions = FXCollections.observableArrayList(
             "All Bills", "Paid", "Unpaid", "Overdue"
     );
-    private ObservableList<Bill> billList = FXCollections.observableArrayList();
+    // The loaded or searched bills as returned, handed to the pager without copying
+    private List<Bill> billList = Collections.emptyList();
     private User currentUser;
     private static final int ITEMS_PER_PAGE = 10;
+    private final DataAccess.Latest billRequest = new DataAccess.Latest();
+    private final SearchSession<Bill> billSearch = new SearchSession<>(billRequest, () -> FileManager.loadBills().getVersion());
+    private PagedTable<Bill> billsPager;
     private static final ZoneId ZONE_ID = ZoneId.of("Europe/Helsinki"); // EEST
     
     public CustomerController() {
@@ -57,7 +63,7 @@ public class CustomerController {
         }
         
         if (billSearchField != null) {
-            billSearchField.textProperty().addListener((obs, oldVal, newVal) -> searchBills());
+            billSearch.watch(billSearchField, () -> searchBills(false));
             billSearchField.setOnAction(event -> searchBills());
         }
         
@@ -140,40 +146,38 @@ public class CustomerController {
             System.err.println("Warning: billsTable is null in CustomerInterface.fxml");
         }
         
+        billsPager = new PagedTable<>(billsTable, billsPagination, ITEMS_PER_PAGE);
         loadUserBills();
-        updatePagination();
     }
     
     private void loadUserBills() {
         if (currentUser == null) {
             System.err.println("No user logged in; skipping bill loading");
-            billList.clear();
-            if (billsTable != null) {
-                billsTable.setItems(billList);
-            }
+            billList = Collections.emptyList();
             updatePagination();
             return;
         }
-        try {
-            List<Bill> allBills = FileManager.loadBillsForUser(currentUser.getId());
-            billList.setAll(allBills.stream()
-                    .filter(bill -> bill.getCustomerId() == currentUser.getId())
-                    .collect(Collectors.toList()));
-            System.out.println("Loaded " + billList.size() + " bills for customer ID " + currentUser.getId());
-            if (billsTable != null) {
-                billsTable.setItems(billList);
-                billsTable.refresh();
-            }
-        } catch (Exception e) {
+        int customerId = currentUser.getId();
+        Task<List<Bill>> task = billRequest.submit(() -> FileManager.loadBillsForCustomer(customerId), bills -> {
+            billList = bills;
+            System.out.println("Loaded " + billList.size() + " bills for customer ID " + customerId);
+            updatePagination();
+        }, e -> {
             System.err.println("Error loading bills: " + e.getMessage());
-            billList.clear();
+            billList = Collections.emptyList();
             showAlert("Error", "Failed to load bills: " + e.getMessage());
-        }
-        updatePagination();
+            updatePagination();
+        });
+        DataAccess.showLoading(billsTable, task);
     }
     
     @FXML
     private void searchBills() {
+        searchBills(true);
+    }
+
+    // Searches started by typing leave the current rows up until the results arrive
+    private void searchBills(boolean showProgress) {
         if (currentUser == null) {
             System.err.println("No user; skipping search");
             return;
@@ -186,40 +190,18 @@ public class CustomerController {
         
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
         
-        try {
-            List<Bill> filteredBills = FileManager.loadBillsForUser(currentUser.getId()).stream()
-                    .filter(bill -> bill.getCustomerId() == currentUser.getId())
-                    .filter(bill -> {
-                        if (searchTerm.isEmpty()) return true;
-                        String billIdStr = String.valueOf(bill.getBillId());
-                        String valueStr = String.format("%.2f", bill.getValue());
-                        String companyName = bill.getCompanyName() != null ? bill.getCompanyName().toLowerCase() : "";
-                        String dateStr = bill.getDate() != null ? sdf.format(bill.getDate()) : "-";
-                        String dueDateStr = bill.getDueDate() != null ? sdf.format(bill.getDueDate()) : "-";
-                        String statusStr;
-                        try {
-                            if (bill.isIspaid()) {
-                                statusStr = "paid";
-                            } else if (bill.getDueDate() == null) {
-                                statusStr = "unpaid";
-                            } else {
-                                LocalDate dueLocalDate = bill.getDueDate().toInstant().atZone(ZONE_ID).toLocalDate();
-                                LocalDate today = LocalDate.now(ZONE_ID);
-                                boolean isOverdue = dueLocalDate.isBefore(today);
-                                statusStr = isOverdue ? "overdue" : "unpaid";
-                                System.out.println("Search: Bill ID " + bill.getBillId() + ": dueDate=" + dueLocalDate + ", today=" + today + ", isOverdue=" + isOverdue);
-                            }
-                        } catch (Exception e) {
-                            System.err.println("Error computing search status for bill ID " + bill.getBillId() + ": " + e.getMessage());
-                            statusStr = "unpaid";
-                        }
-                        return billIdStr.contains(searchTerm) || 
-                               valueStr.contains(searchTerm) || 
-                               companyName.contains(searchTerm) ||
-                               dateStr.contains(searchTerm) ||
-                               dueDateStr.contains(searchTerm) ||
-                               statusStr.contains(searchTerm);
-                    })
+        int userId = currentUser.getId();
+        Task<?> task = billSearch.submit(searchTerm, Arrays.asList(startDate, endDate, statusFilter), () -> {
+            // The date range is answered by the date index and the search text by the trigram index;
+            // the text filter below then only confirms the index candidates
+            List<Bill> candidates = startDate != null && endDate != null
+                    ? FileManager.loadBillsForCustomer(userId,
+                            java.sql.Date.valueOf(startDate).getTime(), java.sql.Date.valueOf(endDate.plusDays(1)).getTime())
+                    : FileManager.loadBillsForCustomer(userId);
+            int[] matchingIds = searchTerm.isEmpty() ? null : FileManager.searchBillIds(searchTerm);
+            return candidates.stream()
+                    .filter(bill -> matchingIds == null || Arrays.binarySearch(matchingIds, bill.getBillId()) >= 0)
+                    .filter(bill -> matchesSearch(bill, searchTerm, sdf))
                     .filter(bill -> {
                         if (statusFilter == null || statusFilter.equals("All Bills")) return true;
                         try {
@@ -241,31 +223,16 @@ public class CustomerController {
                             return statusFilter.equals("Unpaid");
                         }
                     })
-                    .filter(bill -> {
-                        if (startDate == null || endDate == null) return true;
-                        try {
-                            long billTime = bill.getDate().getTime();
-                            long startTime = java.sql.Date.valueOf(startDate).getTime();
-                            long endTime = java.sql.Date.valueOf(endDate.plusDays(1)).getTime();
-                            return billTime >= startTime && billTime < endTime;
-                        } catch (Exception e) {
-                            System.err.println("Error filtering date for bill ID " + bill.getBillId() + ": " + e.getMessage());
-                            return false;
-                        }
-                    })
                     .collect(Collectors.toList());
-            
-            billList.setAll(filteredBills);
+        }, bill -> matchesSearch(bill, searchTerm, sdf), filteredBills -> {
+            billList = filteredBills;
             System.out.println("Search returned " + filteredBills.size() + " bills for searchTerm='" + searchTerm + "', statusFilter='" + statusFilter + "', dateRange=" + (startDate != null ? startDate.toString() : "null") + " to " + (endDate != null ? endDate.toString() : "null"));
-            if (billsTable != null) {
-                billsTable.setItems(billList);
-                billsTable.refresh();
-            }
             updatePagination();
-        } catch (Exception e) {
+        }, e -> {
             System.err.println("Error searching bills: " + e.getMessage());
             showAlert("Error", "Failed to search bills: " + e.getMessage());
-        }
+        });
+        if (showProgress) DataAccess.showLoading(billsTable, task);
     }
     @FXML
     private void markBillAsPaid() {
@@ -274,13 +241,11 @@ public class CustomerController {
             showAlert("No Selection", "Please select a bill to mark as paid.");
             return;
         }
-        try {
-            FileManager.updateBillStatus(selected.getBillId(), true);
+        int billId = selected.getBillId();
+        DataAccess.run(() -> FileManager.updateBillStatus(billId, true), () -> {
             loadUserBills();
             showAlert("Success", "Bill marked as paid.");
-        } catch (Exception e) {
-            showAlert("Error", "Failed to update bill status: " + e.getMessage());
-        }
+        }, e -> showAlert("Error", "Failed to update bill status: " + e.getMessage()));
     }
     
     @FXML
@@ -290,40 +255,51 @@ public class CustomerController {
             showAlert("No Selection", "Please select a bill to mark as unpaid.");
             return;
         }
-        try {
-            FileManager.updateBillStatus(selected.getBillId(), false);
+        int billId = selected.getBillId();
+        DataAccess.run(() -> FileManager.updateBillStatus(billId, false), () -> {
             loadUserBills();
             showAlert("Success", "Bill marked as unpaid.");
+        }, e -> showAlert("Error", "Failed to update bill status: " + e.getMessage()));
+    }
+    
+    private static boolean matchesSearch(Bill bill, String searchTerm, SimpleDateFormat sdf) {
+        if (searchTerm.isEmpty()) return true;
+        String billIdStr = String.valueOf(bill.getBillId());
+        String valueStr = String.format("%.2f", bill.getValue());
+        String companyName = bill.getCompanyName() != null ? bill.getCompanyName().toLowerCase() : "";
+        String dateStr = bill.getDate() != null ? sdf.format(bill.getDate()) : "-";
+        String dueDateStr = bill.getDueDate() != null ? sdf.format(bill.getDueDate()) : "-";
+        String statusStr;
+        try {
+            if (bill.isIspaid()) {
+                statusStr = "paid";
+            } else if (bill.getDueDate() == null) {
+                statusStr = "unpaid";
+            } else {
+                LocalDate dueLocalDate = bill.getDueDate().toInstant().atZone(ZONE_ID).toLocalDate();
+                LocalDate today = LocalDate.now(ZONE_ID);
+                boolean isOverdue = dueLocalDate.isBefore(today);
+                statusStr = isOverdue ? "overdue" : "unpaid";
+                System.out.println("Search: Bill ID " + bill.getBillId() + ": dueDate=" + dueLocalDate + ", today=" + today + ", isOverdue=" + isOverdue);
+            }
         } catch (Exception e) {
-            showAlert("Error", "Failed to update bill status: " + e.getMessage());
+            System.err.println("Error computing search status for bill ID " + bill.getBillId() + ": " + e.getMessage());
+            statusStr = "unpaid";
         }
+        return billIdStr.contains(searchTerm) || 
+               valueStr.contains(searchTerm) || 
+               companyName.contains(searchTerm) ||
+               dateStr.contains(searchTerm) ||
+               dueDateStr.contains(searchTerm) ||
+               statusStr.contains(searchTerm);
     }
-    
+
     private void updatePagination() {
-        if (billsPagination == null || billList == null) {
+        if (billsPager == null || billList == null) {
             System.err.println("Pagination or billList is null; skipping pagination update");
             return;
         }
-        try {
-            int pageCount = (int) Math.ceil((double) billList.size() / ITEMS_PER_PAGE);
-            billsPagination.setPageCount(pageCount == 0 ? 1 : pageCount);
-            billsPagination.setPageFactory(pageIndex -> {
-                int fromIndex = pageIndex * ITEMS_PER_PAGE;
-                int toIndex = Math.min(fromIndex + ITEMS_PER_PAGE, billList.size());
-                ObservableList<Bill> pageItems = FXCollections.observableArrayList();
-                if (fromIndex < billList.size()) {
-                    pageItems.addAll(billList.subList(fromIndex, toIndex));
-                }
-                if (billsTable != null) {
-                    billsTable.setItems(pageItems);
-                    billsTable.refresh();
-                }
-                return new VBox(billsTable != null ? billsTable : new Label("No bills to display"));
-            });
-        } catch (Exception e) {
-            System.err.println("Error updating pagination: " + e.getMessage());
-            showAlert("Error", "Failed to update bill table: " + e.getMessage());
-        }
+        billsPager.setRows(billList);
     }
     
     @FXML
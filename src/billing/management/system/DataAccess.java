@@ -0,0 +1,136 @@
+package billing.management.system;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+
+/**
+ * Runs FileManager calls on a single dedicated I/O thread and hands the results back on the JavaFX
+ * application thread, so parsing or rewriting the data files never blocks the UI. Work runs in
+ * submission order, so changes made from the UI reach FileManager in the order they were made.
+ *
+ * <p>Bulk jobs such as exports and imports, which can take minutes, run on a separate thread
+ * through {@link #submitBulk} and {@link #executeBulk}, so table loads, searches and status changes
+ * do not queue behind them.
+ */
+public final class DataAccess {
+    private static final ExecutorService IO_EXECUTOR = newExecutor("file-io");
+    private static final ExecutorService BULK_EXECUTOR = newExecutor("bulk-io");
+
+    private DataAccess() {
+    }
+
+    private static ExecutorService newExecutor(String name) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Runs {@code work} in the background; exactly one of the callbacks is invoked on the FX thread unless the task is cancelled. */
+    public static <T> Task<T> submit(Callable<T> work, Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        return submit(IO_EXECUTOR, work, onSuccess, onFailure);
+    }
+
+    /** Like {@link #submit} for long bulk work, which runs on the bulk thread. */
+    public static <T> Task<T> submitBulk(Callable<T> work, Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        return submit(BULK_EXECUTOR, work, onSuccess, onFailure);
+    }
+
+    private static <T> Task<T> submit(ExecutorService executor, Callable<T> work, Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(event -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(event -> {
+            Throwable error = task.getException();
+            System.err.println("Background data access failed: " + error);
+            onFailure.accept(error);
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    /** Queues a long task that reports its own progress and results, such as an export, on the bulk thread. */
+    public static <T> Task<T> executeBulk(Task<T> task) {
+        BULK_EXECUTOR.execute(task);
+        return task;
+    }
+
+    public static Task<Void> run(Runnable work, Runnable onSuccess, Consumer<Throwable> onFailure) {
+        return submit(() -> {
+            work.run();
+            return null;
+        }, ignored -> onSuccess.run(), onFailure);
+    }
+
+    /** Shows a progress indicator as the table's placeholder while the task runs, then restores the original one. */
+    public static void showLoading(TableView<?> table, Task<?> task) {
+        if (table == null) return;
+        Node placeholder = table.getPlaceholder();
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.progressProperty().bind(task.progressProperty());
+        indicator.setMaxSize(48, 48);
+        table.setItems(FXCollections.observableArrayList());
+        table.setPlaceholder(indicator);
+        task.stateProperty().addListener((obs, oldState, newState) -> {
+            if (newState == Worker.State.SUCCEEDED || newState == Worker.State.FAILED || newState == Worker.State.CANCELLED) {
+                if (table.getPlaceholder() == indicator) {
+                    table.setPlaceholder(placeholder);
+                }
+            }
+        });
+    }
+
+    /** Waits for queued writes to reach disk; called when the application exits. */
+    public static void shutdown() {
+        IO_EXECUTOR.shutdown();
+        BULK_EXECUTOR.shutdown();
+        try {
+            if (!IO_EXECUTOR.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("Timed out waiting for pending data writes");
+            }
+            if (!BULK_EXECUTOR.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("Timed out waiting for a running export or import");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Holds the latest of a series of requests for the same data, such as successive searches.
+     * Starting a request cancels the previous one: if it has not started yet it never runs, and if
+     * it is running its result is dropped. Running work is not interrupted, so a file being read
+     * or written is never left half done.
+     */
+    public static final class Latest {
+        private Task<?> current;
+
+        public <T> Task<T> submit(Callable<T> work, Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+            cancel();
+            Task<T> task = DataAccess.submit(work, onSuccess, onFailure);
+            current = task;
+            return task;
+        }
+
+        public void cancel() {
+            if (current != null) {
+                current.cancel(false);
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package billing.management.system;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Read-only, versioned view of the users or bills held by FileManager. Handing one out copies
+ * nothing, and every write publishes a new snapshot instead of changing an existing one or the
+ * items in it, so a reader keeps a consistent list for as long as it holds on to it. Appends reuse the backing
+ * array when they can: a snapshot only ever sees the first {@code size} slots, and a slot is
+ * written once, by whichever snapshot first extends past it.
+ */
+public final class DataSnapshot<T> extends AbstractList<T> implements RandomAccess {
+    private static final DataSnapshot<?> EMPTY = new DataSnapshot<>(new Object[0], 0, 0, new int[1]);
+
+    private final Object[] items;
+    private final int size;
+    private final long version;
+    // Number of slots of items written so far; shared by every snapshot over the same array
+    private final int[] filled;
+
+    private DataSnapshot(Object[] items, int size, long version, int[] filled) {
+        this.items = items;
+        this.size = size;
+        this.version = version;
+        this.filled = filled;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> DataSnapshot<T> empty() {
+        return (DataSnapshot<T>) EMPTY;
+    }
+
+    public static <T> DataSnapshot<T> of(Collection<? extends T> items, long version) {
+        Object[] array = items.toArray();
+        return new DataSnapshot<>(array, array.length, version, new int[] {array.length});
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return (T) items[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    DataSnapshot<T> withVersion(long newVersion) {
+        return new DataSnapshot<>(items, size, newVersion, filled);
+    }
+
+    DataSnapshot<T> withAppended(T item, long newVersion) {
+        if (size == filled[0] && size < items.length) {
+            items[size] = item;
+            filled[0] = size + 1;
+            return new DataSnapshot<>(items, size + 1, newVersion, filled);
+        }
+        Object[] grown = Arrays.copyOf(items, Math.max(16, size + (size >> 1) + 1));
+        grown[size] = item;
+        return new DataSnapshot<>(grown, size + 1, newVersion, new int[] {size + 1});
+    }
+
+    DataSnapshot<T> withAppendedAll(Collection<? extends T> added, long newVersion) {
+        if (added.isEmpty()) return withVersion(newVersion);
+        int newSize = size + added.size();
+        Object[] target = items;
+        int[] targetFilled = filled;
+        if (size != filled[0] || newSize > items.length) {
+            target = Arrays.copyOf(items, Math.max(newSize, size + (size >> 1) + 1));
+            targetFilled = new int[1];
+        }
+        int index = size;
+        for (T item : added) {
+            target[index++] = item;
+        }
+        targetFilled[0] = newSize;
+        return new DataSnapshot<>(target, newSize, newVersion, targetFilled);
+    }
+
+    @SuppressWarnings("unchecked")
+    DataSnapshot<T> without(Predicate<? super T> removed, long newVersion) {
+        Object[] kept = new Object[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!removed.test((T) items[i])) kept[count++] = items[i];
+        }
+        return new DataSnapshot<>(kept, count, newVersion, new int[] {count});
+    }
+
+    /** A copy with {@code replacement} in the slot that holds {@code existing}, compared by identity. */
+    DataSnapshot<T> withReplaced(T existing, T replacement, long newVersion) {
+        Object[] copy = Arrays.copyOf(items, size);
+        for (int i = 0; i < size; i++) {
+            if (copy[i] == existing) {
+                copy[i] = replacement;
+                return new DataSnapshot<>(copy, size, newVersion, new int[] {size});
+            }
+        }
+        throw new IllegalArgumentException("Item is not in the snapshot: " + existing);
+    }
+}
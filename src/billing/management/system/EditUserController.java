@@ -62,11 +62,15 @@ public class EditUserController {
             return;
         }
 
-        selectedUser = FileManager.loadUsers().stream()
+        DataAccess.submit(() -> FileManager.loadUsers().stream()
                 .filter(user -> user.getName().equalsIgnoreCase(username))
                 .findFirst()
-                .orElse(null);
+                .orElse(null), user -> showUser(user, username),
+                e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to load users: " + e.getMessage()));
+    }
 
+    private void showUser(User user, String username) {
+        selectedUser = user;
         if (selectedUser == null) {
             showAlert(Alert.AlertType.ERROR, "User Not Found", "No user found with username: " + username);
             clearFields();
@@ -127,17 +131,10 @@ public class EditUserController {
             return;
         }
 
-        // Check for duplicate username (excluding current user)
-        if (FileManager.loadUsers().stream()
-                .anyMatch(u -> u.getName().equalsIgnoreCase(username) && u.getId() != selectedUser.getId())) {
-            showAlert(Alert.AlertType.ERROR, "Duplicate Name", "Username already exists.");
-            return;
-        }
-
         // Create updated user
+        User updatedUser;
+        int id = selectedUser.getId();
         try {
-            User updatedUser;
-            int id = selectedUser.getId();
             switch (userType) {
                 case "Admin":
                     updatedUser = new Admin(username, password, id, email);
@@ -152,14 +149,29 @@ public class EditUserController {
                 default:
                     throw new IllegalStateException("Invalid user type");
             }
+        } catch (Exception e) {
+            showAlert(Alert.AlertType.ERROR, "Error", "Failed to update user: " + e.getMessage());
+            return;
+        }
+
+        // Check for duplicate username (excluding current user), then save
+        DataAccess.submit(() -> {
+            if (FileManager.loadUsers().stream()
+                    .anyMatch(u -> u.getName().equalsIgnoreCase(username) && u.getId() != id)) {
+                return false;
+            }
             FileManager.updateUserAndBills(updatedUser);
+            return true;
+        }, updated -> {
+            if (!updated) {
+                showAlert(Alert.AlertType.ERROR, "Duplicate Name", "Username already exists.");
+                return;
+            }
             userUpdated = true;
             showAlert(Alert.AlertType.INFORMATION, "Success", "User updated successfully.");
             Stage stage = (Stage) usernameField.getScene().getWindow();
             stage.close();
-        } catch (Exception e) {
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to update user: " + e.getMessage());
-        }
+        }, e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to update user: " + e.getMessage()));
     }
 
     @FXML
@@ -1,308 +1,1125 @@
-package billing.management.system;
-
-import java.io.*;
-import java.util.*;
-
-public class FileManager {
-    private static final String USERS_FILE = "users.txt";
-    private static final String BILLS_FILE = "bills.txt";
-    private static List<User> cachedUsers = null;
-    private static List<Bill> cachedBills = null;
-    private static int lastBillId = 0;
-
-    public static void saveUsers(List<User> users) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(USERS_FILE))) {
-            for (User user : users) {
-                writer.write(user.toDataString());
-                writer.newLine();
-            }
-            cachedUsers = new ArrayList<>(users);
-            System.out.println("Users saved to " + USERS_FILE);
-        } catch (IOException e) {
-            System.err.println("Error saving users: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    public static List<User> loadUsers() {
-        if (cachedUsers != null) {
-            System.out.println("Returning cached users, count: " + cachedUsers.size());
-            return new ArrayList<>(cachedUsers);
-        }
-        List<User> users = new ArrayList<>();
-        File file = new File(USERS_FILE);
-        if (!file.exists()) {
-            System.out.println("Users file not found, creating new: " + USERS_FILE);
-            return users;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                String type = parts[0];
-                if ((type.equals("Admin") && parts.length != 5) ||
-                    (type.equals("Company") && parts.length != 6) ||
-                    (type.equals("Customer") && parts.length != 6)) {
-                    System.err.println("Skipping invalid user line (incorrect field count for " + type + "): " + line);
-                    continue;
-                }
-
-                try {
-                    String name = parts[1];
-                    String password = parts[2];
-                    int id = Integer.parseInt(parts[3]);
-                    String email = parts[4];
-
-                    switch (type) {
-                        case "Admin":
-                            users.add(new Admin(name, password, id, email));
-                            break;
-                        case "Company":
-                            String industry = parts[5];
-                            users.add(new Company(name, password, id, email, industry));
-                            break;
-                        case "Customer":
-                            long startDateMillis = Long.parseLong(parts[5]);
-                            Date startDate = new Date(startDateMillis);
-                            users.add(new Customer(name, password, id, email, startDate));
-                            break;
-                        default:
-                            System.err.println("Skipping line with unknown user type: " + line);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Skipping invalid user line: " + line + ", Error: " + e.getMessage());
-                }
-            }
-            cachedUsers = new ArrayList<>(users);
-            System.out.println("Loaded " + users.size() + " users from " + USERS_FILE);
-        } catch (IOException e) {
-            System.err.println("Error reading users: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return users;
-    }
-
-    public static void saveBills(List<Bill> bills) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(BILLS_FILE))) {
-            for (Bill bill : bills) {
-                try {
-                    if (bill.getDueDate() == null) {
-                        System.err.println("Null due date detected for bill ID " + bill.getBillId() + "; skipping write");
-                        continue;
-                    }
-                    writer.write(bill.toDataString());
-                    writer.newLine();
-                } catch (Exception e) {
-                    System.err.println("Failed to write bill ID " + bill.getBillId() + ": " + e.getMessage());
-                }
-            }
-            cachedBills = new ArrayList<>(bills);
-            System.out.println("Bills saved to " + BILLS_FILE + ", count: " + bills.size());
-        } catch (IOException e) {
-            System.err.println("Error saving bills: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to save bills: " + e.getMessage());
-        }
-    }
-
-    public static void saveBill(Bill bill) {
-        if (bill == null || bill.getDate() == null || bill.getDueDate() == null) {
-            System.err.println("Invalid bill data for ID " + (bill != null ? bill.getBillId() : "null") + ": null fields detected");
-            throw new IllegalArgumentException("Bill or its date fields cannot be null");
-        }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(BILLS_FILE, true))) {
-            String billData = bill.toDataString();
-            writer.write(billData);
-            writer.newLine();
-            if (cachedBills != null) {
-                cachedBills.add(bill);
-            } else {
-                cachedBills = new ArrayList<>();
-                cachedBills.add(bill);
-            }
-            if (bill.getBillId() > lastBillId) {
-                lastBillId = bill.getBillId();
-            }
-            System.out.println("Bill ID " + bill.getBillId() + " appended to " + BILLS_FILE + ": " + billData);
-            cachedBills = null; // Force reload on next loadBills
-        } catch (IOException e) {
-            System.err.println("Error appending bill ID " + bill.getBillId() + ": " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to save bill: " + e.getMessage());
-        }
-    }
-
-    public static List<Bill> loadBills() {
-        if (cachedBills != null) {
-            System.out.println("Returning cached bills, count: " + cachedBills.size());
-            return new ArrayList<>(cachedBills);
-        }
-        List<Bill> bills = new ArrayList<>();
-        File file = new File(BILLS_FILE);
-        if (!file.exists()) {
-            System.out.println("Bills file not found, creating new: " + BILLS_FILE);
-            return bills;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            int lineNumber = 0;
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                if (line.trim().isEmpty()) {
-                    System.err.println("Skipping empty line at line " + lineNumber);
-                    continue;
-                }
-                String[] parts = line.split("\\|");
-                if (parts.length != 9) {
-                    System.err.println("Skipping invalid bill line at line " + lineNumber + " (incorrect field count): " + line);
-                    continue;
-                }
-                try {
-                    int billId = Integer.parseInt(parts[0].trim());
-                    double value = Double.parseDouble(parts[1].trim());
-                    int customerId = Integer.parseInt(parts[2].trim());
-                    int companyId = Integer.parseInt(parts[3].trim());
-                    String customerName = parts[4].trim();
-                    String companyName = parts[5].trim();
-                    long dateMillis = Long.parseLong(parts[6].trim());
-                    String dueDateStr = parts[7].trim();
-                    boolean isPaid = Boolean.parseBoolean(parts[8].trim());
-
-                    Date date = new Date(dateMillis);
-                    Date dueDate;
-                    if (dueDateStr.isEmpty()) {
-                        System.err.println("Empty due date for bill ID " + billId + "; skipping bill");
-                        continue;
-                    } else {
-                        long dueDateMillis = Long.parseLong(dueDateStr);
-                        dueDate = new Date(dueDateMillis);
-                        if (dueDateMillis <= 0) {
-                            System.err.println("Invalid due date timestamp " + dueDateMillis + " for bill ID " + billId + "; skipping bill");
-                            continue;
-                        }
-                    }
-                    bills.add(new Bill(billId, value, customerId, companyId, customerName, companyName, date, dueDate, isPaid));
-                    if (billId > lastBillId) lastBillId = billId;
-                    System.out.println("Loaded bill ID " + billId + ": date=" + date + " (" + dateMillis + "ms), dueDate=" + dueDate + " (" + dueDateStr + "ms), isPaid=" + isPaid);
-                } catch (Exception e) {
-                    System.err.println("Skipping invalid bill line at line " + lineNumber + ": " + line + ", Error: " + e.getMessage());
-                }
-            }
-            cachedBills = new ArrayList<>(bills);
-            System.out.println("Loaded " + bills.size() + " bills from " + BILLS_FILE);
-        } catch (IOException e) {
-            System.err.println("Error loading bills: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return bills;
-    }
-
-    public static List<Bill> loadBillsForUser(int userId) {
-        List<Bill> userBills = new ArrayList<>();
-        for (Bill bill : loadBills()) {
-            if (bill.getCompanyId() == userId || bill.getCustomerId() == userId) {
-                userBills.add(bill);
-            }
-        }
-        System.out.println("Loaded " + userBills.size() + " bills for user ID " + userId);
-        return userBills;
-    }
-    
-    public static void deleteUser(int userId, List<User> users) {
-        User userToDelete = users.stream()
-                .filter(user -> user.getId() == userId)
-                .findFirst()
-                .orElse(null);
-
-        if (userToDelete == null) {
-            System.err.println("User with ID " + userId + " not found.");
-            return;
-        }
-
-        users.removeIf(user -> user.getId() == userId);
-        saveUsers(users);
-
-        if (userToDelete instanceof Company || userToDelete instanceof Customer) {
-            List<Bill> bills = loadBills();
-            int initialSize = bills.size();
-            bills.removeIf(bill -> bill.getCompanyId() == userId || bill.getCustomerId() == userId);
-            int removedBills = initialSize - bills.size();
-            if (removedBills > 0) {
-                System.out.println("Deleted " + removedBills + " bills associated with user ID " + userId);
-            }
-            saveBills(bills);
-        } else {
-            System.out.println("No bills deleted for Admin user ID " + userId);
-        }
-    }
-
-    public static void deleteBills(List<Integer> billIds) {
-        try {
-            List<Bill> bills = loadBills();
-            int initialSize = bills.size();
-            bills.removeIf(bill -> billIds.contains(bill.getBillId()));
-            int removedBills = initialSize - bills.size();
-            saveBills(bills);
-            System.out.println("Deleted " + removedBills + " bills with IDs: " + billIds);
-        } catch (Exception e) {
-            System.err.println("Error deleting bills: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to delete bills: " + e.getMessage());
-        }
-    }
-
-    public static User findUserById(int userId) {
-        for (User user : loadUsers()) {
-            if (user.getId() == userId) return user;
-        }
-        return null;
-    }
-
-    public static Bill findBillById(int billId) {
-        for (Bill bill : loadBills()) {
-            if (bill.getBillId() == billId) return bill;
-        }
-        return null;
-    }
-
-    public static int generateBillId() {
-        int newId = lastBillId + 1;
-        lastBillId = newId;
-        return newId;
-    }
-
-    public static int generateUserId() {
-        List<User> users = loadUsers();
-        if (users.isEmpty()) return 1;
-        return users.stream().mapToInt(User::getId).max().orElse(0) + 1;
-    }
-
-    public static void updateUserAndBills(User updatedUser) {
-        List<User> users = loadUsers();
-        users.removeIf(user -> user.getId() == updatedUser.getId());
-        users.add(updatedUser);
-        saveUsers(users);
-
-        List<Bill> bills = loadBills();
-        for (Bill bill : bills) {
-            if (bill.getCompanyId() == updatedUser.getId()) {
-                bill.setCompanyName(updatedUser.getName());
-            }
-            if (bill.getCustomerId() == updatedUser.getId()) {
-                bill.setCustomerName(updatedUser.getName());
-            }
-        }
-        saveBills(bills);
-    }
-
-    public static void updateBillStatus(int billId, boolean isPaid) {
-        List<Bill> bills = loadBills();
-        for (Bill bill : bills) {
-            if (bill.getBillId() == billId) {
-                bill.setIspaid(isPaid);
-                break;
-            }
-        }
-        saveBills(bills);
-    }
+package billing.management.system;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class FileManager {
+    // Start with -Dbilling.dir=<directory> to keep the data files there instead of the working directory
+    private static final String DATA_DIR = System.getProperty("billing.dir", "");
+    private static final String USERS_FILE = dataFile("users.txt");
+    // Start with -Dbilling.store=binary to keep the bills in BinaryBillStore format; the first load
+    // converts an existing bills.txt, which is left in place
+    private static final boolean BINARY_STORE = "binary".equalsIgnoreCase(System.getProperty("billing.store"));
+    private static final String TEXT_BILLS_FILE = dataFile("bills.txt");
+    private static final String BILLS_FILE = BINARY_STORE ? dataFile("bills.bin") : TEXT_BILLS_FILE;
+    // Guards the caches, indexes and files below. Snapshots are published through volatile fields, so
+    // returning the current users or bills takes no lock; index lookups share the read lock and every
+    // change, load or index rebuild holds the write lock. It is reentrant because changes build on
+    // each other, e.g. updateUserAndBills saves the users and then the bills.
+    private static final ReentrantReadWriteLock modelLock = new ReentrantReadWriteLock();
+    // Serialize bill creation, status changes and deletion per customer, including the wait for the
+    // journal, so one customer's changes reach the disk in order while other customers' proceed.
+    // Always taken before modelLock
+    private static final int ACCOUNT_LOCK_STRIPES = 64;
+    private static volatile AccountLocks accountLocks = new AccountLocks(ACCOUNT_LOCK_STRIPES);
+    private static volatile DataSnapshot<User> cachedUsers = null;
+    private static volatile DataSnapshot<Bill> cachedBills = null;
+    private static final BillIndex billIndex = new BillIndex();
+    private static final BillAggregates billAggregates = new BillAggregates();
+    // Search indexes are built on the first search; users are keyed by position, bills by bill id
+    private static final TrigramIndex userSearch = new TrigramIndex();
+    private static long userSearchVersion = -1;
+    private static TrigramIndex billSearch = null;
+    // Columnar copy of the bills for analytics, built on first use and replaced after the bills change
+    private static final AtomicReference<BillColumns> billColumns = new AtomicReference<>();
+    private static final Object billColumnsLock = new Object();
+    private static final PrefixIndex<Customer> customerPrefixes = new PrefixIndex<>(FileManager::customerPrefixKeys);
+    private static long customerPrefixVersion = -1;
+    private static final DateTimeFormatter SEARCH_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
+    private static volatile long usersVersion = 0;
+    private static volatile long billsVersion = 0;
+    private static final AtomicInteger lastBillId = new AtomicInteger();
+    private static final int JOURNAL_COMPACTION_THRESHOLD = 1000;
+    private static final BillJournal billJournal = new BillJournal(BILLS_FILE);
+    private static volatile boolean journalEnabled = true;
+    private static volatile boolean mappedLoaderEnabled = true;
+    private static final long PARALLEL_LOAD_THRESHOLD = 8L * 1024 * 1024;
+    private static volatile int loaderThreads = Runtime.getRuntime().availableProcessors();
+
+    private static String dataFile(String name) {
+        return Paths.get(DATA_DIR, name).toString();
+    }
+
+    public static boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    public static void setJournalEnabled(boolean enabled) {
+        if (!enabled && BINARY_STORE) {
+            throw new IllegalStateException("The binary bill store is only rewritten as a whole and needs the journal");
+        }
+        modelLock.writeLock().lock();
+        try {
+            if (journalEnabled && !enabled && billJournal.getRecordCount() > 0) {
+                saveBills(loadBills());
+            }
+            journalEnabled = enabled;
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    public static void setMappedLoaderEnabled(boolean enabled) {
+        mappedLoaderEnabled = enabled;
+    }
+
+    public static int getLoaderThreads() {
+        return loaderThreads;
+    }
+
+    public static void setLoaderThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Loader thread count must be at least 1: " + threads);
+        }
+        loaderThreads = threads;
+    }
+
+    public static boolean isStripedAccountLocks() {
+        return accountLocks.getStripeCount() > 1;
+    }
+
+    /** Switches between per-customer lock stripes and one lock shared by all customers; set it before use. */
+    public static void setStripedAccountLocks(boolean striped) {
+        accountLocks = new AccountLocks(striped ? ACCOUNT_LOCK_STRIPES : 1);
+    }
+
+    public static void saveUsers(List<User> users) {
+        modelLock.writeLock().lock();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(USERS_FILE))) {
+            for (User user : users) {
+                writer.write(user.toDataString());
+                writer.newLine();
+            }
+            cachedUsers = DataSnapshot.of(users, ++usersVersion);
+            System.out.println("Users saved to " + USERS_FILE);
+        } catch (IOException e) {
+            System.err.println("Error saving users: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    public static void addUser(User user) {
+        modelLock.writeLock().lock();
+        try {
+            // Read the users first; loading them after the append would include this user twice
+            DataSnapshot<User> previous = loadUsers();
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(USERS_FILE, true))) {
+                writer.write(user.toDataString());
+                writer.newLine();
+            } catch (IOException e) {
+                System.err.println("Error adding user ID " + user.getId() + ": " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException("Failed to add user: " + e.getMessage());
+            }
+            cachedUsers = previous.withAppended(user, ++usersVersion);
+            // Ids of deleted users are handed out again, so the name may still be the old user's
+            renameInBills(user);
+            if (userSearchVersion == previous.getVersion()) {
+                userSearch.add(previous.size(), userSearchText(user));
+                userSearchVersion = usersVersion;
+            }
+            updateCustomerPrefixes(previous.getVersion(), null, user);
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+        System.out.println("User ID " + user.getId() + " appended to " + USERS_FILE);
+    }
+
+    /** The current users as an immutable snapshot; change them through addUser, updateUserAndBills or deleteUser. */
+    public static DataSnapshot<User> loadUsers() {
+        // Called for nearly every lookup, so the cached path neither locks nor logs
+        DataSnapshot<User> snapshot = cachedUsers;
+        if (snapshot != null) return snapshot;
+        modelLock.writeLock().lock();
+        try {
+            return readUsers();
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    private static DataSnapshot<User> readUsers() {
+        // Another caller may have loaded them while this one waited for the lock
+        if (cachedUsers != null) return cachedUsers;
+        List<User> users = new ArrayList<>();
+        File file = new File(USERS_FILE);
+        if (!file.exists()) {
+            System.out.println("Users file not found, creating new: " + USERS_FILE);
+            return DataSnapshot.empty();
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                String type = parts[0];
+                if ((type.equals("Admin") && parts.length != 5) ||
+                    (type.equals("Company") && parts.length != 6) ||
+                    (type.equals("Customer") && parts.length != 6)) {
+                    System.err.println("Skipping invalid user line (incorrect field count for " + type + "): " + line);
+                    continue;
+                }
+
+                try {
+                    String name = parts[1];
+                    String password = parts[2];
+                    int id = Integer.parseInt(parts[3]);
+                    String email = parts[4];
+
+                    switch (type) {
+                        case "Admin":
+                            users.add(new Admin(name, password, id, email));
+                            break;
+                        case "Company":
+                            String industry = parts[5];
+                            users.add(new Company(name, password, id, email, industry));
+                            break;
+                        case "Customer":
+                            long startDateMillis = Long.parseLong(parts[5]);
+                            Date startDate = new Date(startDateMillis);
+                            users.add(new Customer(name, password, id, email, startDate));
+                            break;
+                        default:
+                            System.err.println("Skipping line with unknown user type: " + line);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Skipping invalid user line: " + line + ", Error: " + e.getMessage());
+                }
+            }
+            cachedUsers = DataSnapshot.of(users, ++usersVersion);
+            for (User user : users) {
+                renameInBills(user);
+            }
+            System.out.println("Loaded " + users.size() + " users from " + USERS_FILE);
+            return cachedUsers;
+        } catch (IOException e) {
+            System.err.println("Error reading users: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return DataSnapshot.of(users, usersVersion);
+    }
+
+    public static long getUsersVersion() {
+        return usersVersion;
+    }
+
+    /**
+     * Users, in file order, whose id, name, email, role or industry may contain {@code query}.
+     * The list can hold false positives, so callers still apply their own match; queries too short
+     * for the index return every user.
+     */
+    public static List<User> searchUsers(String query) {
+        DataSnapshot<User> current = loadUsers();
+        if (query.length() < TrigramIndex.MIN_QUERY_LENGTH) return current;
+        int[] found = read(() -> userSearchVersion == current.getVersion() ? userSearch.candidates(query) : null);
+        if (found != null) return usersAt(current, found);
+        modelLock.writeLock().lock();
+        try {
+            DataSnapshot<User> users = loadUsers();
+            if (userSearchVersion != users.getVersion()) {
+                userSearch.clear();
+                for (int i = 0; i < users.size(); i++) {
+                    userSearch.add(i, userSearchText(users.get(i)));
+                }
+                userSearchVersion = users.getVersion();
+            }
+            return usersAt(users, userSearch.candidates(query));
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    private static List<User> usersAt(DataSnapshot<User> users, int[] positions) {
+        List<User> matches = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            matches.add(users.get(position));
+        }
+        return matches;
+    }
+
+    /**
+     * Up to {@code limit} customers whose name, any word of the name, email or id starts with
+     * {@code prefix}, ordered by the matching text.
+     */
+    public static List<Customer> suggestCustomers(String prefix, int limit) {
+        DataSnapshot<User> current = loadUsers();
+        List<Customer> found = read(() -> customerPrefixVersion == current.getVersion() ? customerPrefixes.find(prefix, limit) : null);
+        if (found != null) return found;
+        modelLock.writeLock().lock();
+        try {
+            DataSnapshot<User> users = loadUsers();
+            if (customerPrefixVersion != users.getVersion()) {
+                List<Customer> customers = new ArrayList<>();
+                for (User user : users) {
+                    if (user instanceof Customer) customers.add((Customer) user);
+                }
+                customerPrefixes.rebuild(customers);
+                customerPrefixVersion = users.getVersion();
+            }
+            return customerPrefixes.find(prefix, limit);
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    // Applies one user change to the customer prefixes if they were current before it
+    private static void updateCustomerPrefixes(long versionBefore, User removed, User added) {
+        if (customerPrefixVersion != versionBefore) return;
+        if (removed instanceof Customer) customerPrefixes.remove((Customer) removed);
+        if (added instanceof Customer) customerPrefixes.add((Customer) added);
+        customerPrefixVersion = usersVersion;
+    }
+
+    private static String[] customerPrefixKeys(Customer customer) {
+        List<String> keys = new ArrayList<>();
+        String name = customer.getName();
+        keys.add(name);
+        for (int space = name.indexOf(' '); space >= 0; space = name.indexOf(' ', space + 1)) {
+            if (space + 1 < name.length() && name.charAt(space + 1) != ' ') keys.add(name.substring(space + 1));
+        }
+        keys.add(customer.getEmail());
+        keys.add(String.valueOf(customer.getId()));
+        return keys.toArray(new String[0]);
+    }
+
+    private static String userSearchText(User user) {
+        StringBuilder text = new StringBuilder()
+                .append(user.getId()).append('\n')
+                .append(user.getName()).append('\n')
+                .append(user.getEmail()).append('\n');
+        if (user instanceof Admin) {
+            text.append("admin");
+        } else if (user instanceof Company) {
+            text.append("company\n").append(((Company) user).getIndustry());
+        } else {
+            text.append("customer");
+        }
+        return text.toString();
+    }
+
+    public static void saveBills(List<Bill> bills) {
+        modelLock.writeLock().lock();
+        try {
+            billJournal.awaitCompaction();
+            writeBillsFile(new File(BILLS_FILE).toPath(), bills);
+            billJournal.clear();
+            setCachedBills(bills);
+            System.out.println("Bills saved to " + BILLS_FILE + ", count: " + bills.size());
+        } catch (IOException e) {
+            System.err.println("Error saving bills: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Failed to save bills: " + e.getMessage());
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    private static void writeBillsFile(Path path, List<Bill> bills) throws IOException {
+        if (BINARY_STORE) {
+            BinaryBillStore.write(path, bills);
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (Bill bill : bills) {
+                try {
+                    if (bill.getDueDate() == null) {
+                        System.err.println("Null due date detected for bill ID " + bill.getBillId() + "; skipping write");
+                        continue;
+                    }
+                    writer.write(bill.toDataString());
+                    writer.newLine();
+                } catch (Exception e) {
+                    System.err.println("Failed to write bill ID " + bill.getBillId() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public static void compactBills() {
+        modelLock.writeLock().lock();
+        try {
+            billJournal.compact(loadBills(), FileManager::writeBillsFile);
+        } catch (IOException e) {
+            System.err.println("Error compacting bills journal: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    // Waits for a background compaction, after which the files can be read back as they stand
+    static void awaitCompaction() {
+        billJournal.awaitCompaction();
+    }
+
+    /**
+     * Journals a change already applied to the cached bills, or rewrites the bills file when the
+     * journal is off. Called with the write lock held; the returned future is awaited with
+     * {@link #awaitJournal} after releasing it, so concurrent changes can share one journal write.
+     */
+    private static CompletableFuture<Void> recordChange(List<String> records) {
+        if (!journalEnabled) {
+            saveBills(loadBills());
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> written = billJournal.submit(records);
+        compactIfNeeded();
+        return written;
+    }
+
+    // The change is already cached; on failure reload so the cache matches what reached the disk
+    private static void awaitJournal(CompletableFuture<Void> written, String failure) {
+        try {
+            BillJournal.await(written);
+        } catch (IOException e) {
+            System.err.println("Error appending to bills journal: " + e.getMessage());
+            e.printStackTrace();
+            discardCachedBills();
+            throw new RuntimeException(failure + ": " + e.getMessage());
+        }
+    }
+
+    // Must run after the cached bills reflect the journaled change, since compaction writes them out
+    private static void compactIfNeeded() {
+        if (journalEnabled && billJournal.getRecordCount() >= JOURNAL_COMPACTION_THRESHOLD) {
+            compactBills();
+        }
+    }
+
+    public static void saveBill(Bill bill) {
+        if (bill == null || bill.getDate() == null || bill.getDueDate() == null) {
+            System.err.println("Invalid bill data for ID " + (bill != null ? bill.getBillId() : "null") + ": null fields detected");
+            throw new IllegalArgumentException("Bill or its date fields cannot be null");
+        }
+        AccountLocks.Held held = accountLocks.lock(bill.getCustomerId());
+        try {
+            writeBill(bill);
+        } finally {
+            held.close();
+        }
+    }
+
+    private static void writeBill(Bill bill) {
+        String billData = bill.toDataString();
+        if (journalEnabled) {
+            try {
+                submitBill(bill).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while saving bill ID " + bill.getBillId());
+            } catch (ExecutionException e) {
+                System.err.println("Error journaling bill ID " + bill.getBillId() + ": " + e.getCause().getMessage());
+                // The bill is already cached; reload so the cache matches what reached the disk
+                discardCachedBills();
+                throw new RuntimeException("Failed to save bill: " + e.getCause().getMessage());
+            }
+            System.out.println("Bill ID " + bill.getBillId() + " journaled for " + BILLS_FILE + ": " + billData);
+            return;
+        }
+        modelLock.writeLock().lock();
+        try {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(BILLS_FILE, true))) {
+                writer.write(billData);
+                writer.newLine();
+            } catch (IOException e) {
+                System.err.println("Error appending bill ID " + bill.getBillId() + ": " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException("Failed to save bill: " + e.getMessage());
+            }
+            addToCache(bill);
+            billJournal.markSynced();
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+        System.out.println("Bill ID " + bill.getBillId() + " appended to " + BILLS_FILE + ": " + billData);
+    }
+
+    /**
+     * Journals a new bill without waiting for the disk. The bill is cached right away and the
+     * future completes once its record has been forced according to the journal flush policy;
+     * bills submitted while the journal writer is busy share its next write and force.
+     */
+    public static CompletableFuture<Void> submitBill(Bill bill) {
+        AccountLocks.Held held = accountLocks.lock(bill.getCustomerId());
+        try {
+            modelLock.writeLock().lock();
+            try {
+                if (journalEnabled) {
+                    CompletableFuture<Void> written = billJournal.submit(Collections.singletonList(BillJournal.appendRecord(bill)));
+                    addToCache(bill);
+                    compactIfNeeded();
+                    return written;
+                }
+            } finally {
+                modelLock.writeLock().unlock();
+            }
+            // saveBill takes the customer's lock again, which is reentrant, and modelLock after it
+            saveBill(bill);
+            return CompletableFuture.completedFuture(null);
+        } finally {
+            held.close();
+        }
+    }
+
+    public static void setJournalFlushPolicy(GroupCommitWriter.FlushPolicy policy) {
+        billJournal.setFlushPolicy(policy);
+    }
+
+    // Without a cache there is nothing to keep warm; the next load picks the bill up from disk
+    private static void addToCache(Bill bill) {
+        lastBillId.accumulateAndGet(bill.getBillId(), Math::max);
+        if (cachedBills != null) {
+            cachedBills = cachedBills.withAppended(bill, ++billsVersion);
+            billIndex.add(bill);
+            billAggregates.add(bill);
+            if (billSearch != null) billSearch.add(bill.getBillId(), billSearchText(bill));
+        }
+    }
+
+    /**
+     * Appends many new bills with a single write, e.g. from a bulk import. Their ids must be new,
+     * typically taken from {@link #allocateBillIds(int)}.
+     */
+    public static void appendBills(List<Bill> bills) {
+        if (bills.isEmpty()) return;
+        for (Bill bill : bills) {
+            if (bill.getDate() == null || bill.getDueDate() == null) {
+                throw new IllegalArgumentException("Bill ID " + bill.getBillId() + " has null date fields");
+            }
+        }
+        int[] customerIds = new int[bills.size()];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = bills.get(i).getCustomerId();
+        }
+        AccountLocks.Held held = accountLocks.lockAll(customerIds);
+        try {
+            CompletableFuture<Void> written;
+            modelLock.writeLock().lock();
+            try {
+                ensureBillsLoaded();
+                if (journalEnabled) {
+                    written = billJournal.submitBills(bills);
+                    addAllToCache(bills);
+                    compactIfNeeded();
+                } else {
+                    try (BufferedWriter writer = Files.newBufferedWriter(new File(BILLS_FILE).toPath(), StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                        for (Bill bill : bills) {
+                            writer.write(bill.toDataString());
+                            writer.newLine();
+                        }
+                    } catch (IOException e) {
+                        System.err.println("Error appending bills: " + e.getMessage());
+                        e.printStackTrace();
+                        throw new RuntimeException("Failed to save bills: " + e.getMessage());
+                    }
+                    addAllToCache(bills);
+                    billJournal.markSynced();
+                    written = CompletableFuture.completedFuture(null);
+                }
+            } finally {
+                modelLock.writeLock().unlock();
+            }
+            awaitJournal(written, "Failed to save bills");
+        } finally {
+            held.close();
+        }
+        System.out.println("Appended " + bills.size() + " bills to " + BILLS_FILE);
+    }
+
+    private static void addAllToCache(List<Bill> bills) {
+        for (Bill bill : bills) {
+            lastBillId.accumulateAndGet(bill.getBillId(), Math::max);
+        }
+        if (cachedBills != null) {
+            cachedBills = cachedBills.withAppendedAll(bills, ++billsVersion);
+            for (Bill bill : bills) {
+                billIndex.add(bill);
+                billAggregates.add(bill);
+                if (billSearch != null) billSearch.add(bill.getBillId(), billSearchText(bill));
+            }
+        }
+    }
+
+    public static long getBillsVersion() {
+        return billsVersion;
+    }
+
+    private static void setCachedBills(List<Bill> bills) {
+        DataSnapshot<Bill> snapshot = DataSnapshot.of(bills, ++billsVersion);
+        billIndex.rebuild(snapshot);
+        billAggregates.rebuild(snapshot);
+        billSearch = null;
+        cachedBills = snapshot;
+    }
+
+    private static void discardCachedBills() {
+        modelLock.writeLock().lock();
+        try {
+            invalidateBills();
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    private static void invalidateBills() {
+        cachedBills = null;
+        billIndex.rebuild(Collections.emptyList());
+        billAggregates.rebuild(Collections.emptyList());
+        billSearch = null;
+        billsVersion++;
+    }
+
+    private static void ensureBillsLoaded() {
+        loadBills();
+    }
+
+    // Publishes the current bills again under a new version after bills were changed in place
+    private static void touchBills() {
+        DataSnapshot<Bill> snapshot = cachedBills;
+        if (snapshot != null) {
+            cachedBills = snapshot.withVersion(++billsVersion);
+        }
+    }
+
+    /** The current bills as an immutable snapshot; change them through the save, update and delete methods. */
+    public static DataSnapshot<Bill> loadBills() {
+        // Every index lookup comes through here, so the cached path neither locks nor logs, and
+        // isInSync only looks at the files once per check interval
+        DataSnapshot<Bill> snapshot = cachedBills;
+        if (snapshot != null && billJournal.isInSync()) return snapshot;
+        modelLock.writeLock().lock();
+        try {
+            return readBills();
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    private static DataSnapshot<Bill> readBills() {
+        if (cachedBills != null && !billJournal.isInSync()) {
+            System.out.println(BILLS_FILE + " changed outside the application; reloading bills");
+            invalidateBills();
+        }
+        // Another caller may have loaded them while this one waited for the lock
+        DataSnapshot<Bill> snapshot = cachedBills;
+        if (snapshot != null) return snapshot;
+        List<Bill> bills = new ArrayList<>();
+        File file = new File(BILLS_FILE);
+        if (BINARY_STORE) {
+            try {
+                convertToBinaryStore();
+            } catch (IOException e) {
+                System.err.println("Error converting " + TEXT_BILLS_FILE + " to " + BILLS_FILE + ": " + e.getMessage());
+                e.printStackTrace();
+                return DataSnapshot.of(bills, billsVersion);
+            }
+        }
+        billJournal.markSynced();
+        if (!file.exists()) {
+            System.out.println("Bills file not found, creating new: " + BILLS_FILE);
+        } else {
+            try {
+                if (BINARY_STORE) {
+                    bills = BinaryBillStore.read(file.toPath());
+                } else if (!mappedLoaderEnabled) {
+                    bills = readBillsFile(file);
+                } else if (loaderThreads > 1 && file.length() >= PARALLEL_LOAD_THRESHOLD) {
+                    bills = new ParallelBillLoader(loaderThreads).read(file.toPath());
+                } else {
+                    bills = new MappedBillReader().read(file.toPath());
+                }
+                System.out.println("Loaded " + bills.size() + " bills from " + BILLS_FILE);
+            } catch (IOException e) {
+                System.err.println("Error loading bills: " + e.getMessage());
+                e.printStackTrace();
+                return DataSnapshot.of(bills, billsVersion);
+            }
+        }
+        billJournal.replay(bills, line -> parseBillLine(line, 0));
+        for (Bill bill : bills) {
+            lastBillId.accumulateAndGet(bill.getBillId(), Math::max);
+        }
+        setCachedBills(bills);
+        compactIfNeeded();
+        return cachedBills;
+    }
+
+    // Journal records are text in both formats, so a pending bills.txt journal moves along unchanged
+    private static void convertToBinaryStore() throws IOException {
+        Path binaryFile = Paths.get(BILLS_FILE);
+        Path textFile = Paths.get(TEXT_BILLS_FILE);
+        if (Files.exists(binaryFile) || !Files.exists(textFile)) return;
+        Path tempFile = Paths.get(BILLS_FILE + ".tmp");
+        BinaryBillStore.convertFromText(textFile, tempFile);
+        for (String suffix : new String[] {".journal", ".journal.old"}) {
+            Path journal = Paths.get(TEXT_BILLS_FILE + suffix);
+            if (Files.exists(journal)) {
+                Files.move(journal, Paths.get(BILLS_FILE + suffix), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(tempFile, binaryFile, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static List<Bill> readBillsFile(File file) throws IOException {
+        List<Bill> bills = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                Bill bill = parseBillLine(line, lineNumber);
+                if (bill != null) {
+                    bills.add(bill);
+                }
+            }
+        }
+        return bills;
+    }
+
+    private static Bill parseBillLine(String line, int lineNumber) {
+        if (line.trim().isEmpty()) {
+            System.err.println("Skipping empty line at line " + lineNumber);
+            return null;
+        }
+        String[] parts = line.split("\\|");
+        if (parts.length != 9) {
+            System.err.println("Skipping invalid bill line at line " + lineNumber + " (incorrect field count): " + line);
+            return null;
+        }
+        try {
+            int billId = Integer.parseInt(parts[0].trim());
+            double value = Double.parseDouble(parts[1].trim());
+            int customerId = Integer.parseInt(parts[2].trim());
+            int companyId = Integer.parseInt(parts[3].trim());
+            String customerName = parts[4].trim();
+            String companyName = parts[5].trim();
+            long dateMillis = Long.parseLong(parts[6].trim());
+            String dueDateStr = parts[7].trim();
+            boolean isPaid = Boolean.parseBoolean(parts[8].trim());
+
+            Date date = new Date(dateMillis);
+            Date dueDate;
+            if (dueDateStr.isEmpty()) {
+                System.err.println("Empty due date for bill ID " + billId + "; skipping bill");
+                return null;
+            } else {
+                long dueDateMillis = Long.parseLong(dueDateStr);
+                dueDate = new Date(dueDateMillis);
+                if (dueDateMillis <= 0) {
+                    System.err.println("Invalid due date timestamp " + dueDateMillis + " for bill ID " + billId + "; skipping bill");
+                    return null;
+                }
+            }
+            System.out.println("Loaded bill ID " + billId + ": date=" + date + " (" + dateMillis + "ms), dueDate=" + dueDate + " (" + dueDateStr + "ms), isPaid=" + isPaid);
+            return new Bill(billId, value, customerId, companyId, customerName, companyName, date, dueDate, isPaid);
+        } catch (Exception e) {
+            System.err.println("Skipping invalid bill line at line " + lineNumber + ": " + line + ", Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Runs a lookup on the indexes under the read lock; lookups must not load or change anything
+    private static <T> T read(Supplier<T> lookup) {
+        modelLock.readLock().lock();
+        try {
+            return lookup.get();
+        } finally {
+            modelLock.readLock().unlock();
+        }
+    }
+
+    public static List<Bill> loadBillsForUser(int userId) {
+        ensureBillsLoaded();
+        List<Bill> userBills = read(() -> {
+            List<Bill> found = billIndex.companyBills(userId);
+            for (Bill bill : billIndex.customerBills(userId)) {
+                if (bill.getCompanyId() != userId) {
+                    found.add(bill);
+                }
+            }
+            return found;
+        });
+        System.out.println("Loaded " + userBills.size() + " bills for user ID " + userId);
+        return userBills;
+    }
+
+    public static BillAggregates.Totals getCompanyTotals(int companyId) {
+        return totals(aggregates -> aggregates.company(companyId));
+    }
+
+    public static BillAggregates.Totals getCustomerTotals(int customerId) {
+        return totals(aggregates -> aggregates.customer(customerId));
+    }
+
+    // Totals change in place, so callers get a copy. Overdue totals go stale at midnight; recount
+    // them on the first lookup of a new day
+    private static BillAggregates.Totals totals(Function<BillAggregates, BillAggregates.Totals> lookup) {
+        ensureBillsLoaded();
+        BillAggregates.Totals totals = read(() -> billAggregates.isCurrent() ? lookup.apply(billAggregates).copy() : null);
+        if (totals != null) return totals;
+        modelLock.writeLock().lock();
+        try {
+            List<Bill> bills = loadBills();
+            if (!billAggregates.isCurrent()) {
+                billAggregates.rebuild(bills);
+            }
+            return lookup.apply(billAggregates).copy();
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    public static List<Bill> loadBillsForCompany(int companyId) {
+        ensureBillsLoaded();
+        return read(() -> billIndex.companyBills(companyId));
+    }
+
+    public static List<Bill> loadBillsForCustomer(int customerId) {
+        ensureBillsLoaded();
+        return read(() -> billIndex.customerBills(customerId));
+    }
+
+    /** Bills dated from {@code from} (inclusive) to {@code until} (exclusive) in epoch milliseconds, oldest first. */
+    public static List<Bill> loadBillsBetween(long from, long until) {
+        ensureBillsLoaded();
+        return read(() -> billIndex.billsBetween(from, until));
+    }
+
+    /**
+     * All bills as a columnar table in date order for analytics scans. Status changes patch the
+     * current table; other changes have it rebuilt by the next call.
+     */
+    public static BillColumns loadBillColumns() {
+        ensureBillsLoaded();
+        BillColumns columns = billColumns.get();
+        if (columns != null && columns.getVersion() == billsVersion) return columns;
+        // One reader builds while the others wait for its table. Writers never take this lock, so
+        // taking the read lock inside it cannot deadlock
+        synchronized (billColumnsLock) {
+            columns = billColumns.get();
+            if (columns != null && columns.getVersion() == billsVersion) return columns;
+            columns = read(() -> new BillColumns(billIndex.billsBetween(Long.MIN_VALUE, Long.MAX_VALUE), billsVersion));
+            publishColumns(columns);
+            return columns;
+        }
+    }
+
+    // A table built from older bills never replaces one built from newer bills
+    private static void publishColumns(BillColumns columns) {
+        billColumns.accumulateAndGet(columns, (current, built) ->
+                current == null || built.getVersion() > current.getVersion() ? built : current);
+    }
+
+    public static List<Bill> loadBillsForCompany(int companyId, long from, long until) {
+        ensureBillsLoaded();
+        return read(() -> billIndex.companyBillsBetween(companyId, from, until));
+    }
+
+    public static List<Bill> loadBillsForCustomer(int customerId, long from, long until) {
+        ensureBillsLoaded();
+        return read(() -> billIndex.customerBillsBetween(customerId, from, until));
+    }
+    
+    public static void deleteUser(int userId) {
+        AccountLocks.Held held = accountLocks.lockAll(customerIdsOfUser(userId));
+        try {
+            CompletableFuture<Void> written;
+            modelLock.writeLock().lock();
+            try {
+                User userToDelete = findUserById(userId);
+
+                if (userToDelete == null) {
+                    System.err.println("User with ID " + userId + " not found.");
+                    return;
+                }
+
+                DataSnapshot<User> previous = loadUsers();
+                List<User> users = new ArrayList<>(previous);
+                users.removeIf(user -> user.getId() == userId);
+                saveUsers(users);
+                updateCustomerPrefixes(previous.getVersion(), userToDelete, null);
+
+                if (!(userToDelete instanceof Company || userToDelete instanceof Customer)) {
+                    System.out.println("No bills deleted for Admin user ID " + userId);
+                    return;
+                }
+                List<Bill> userBills = loadBillsForUser(userId);
+                removeBills(userBills);
+                if (!userBills.isEmpty()) {
+                    System.out.println("Deleted " + userBills.size() + " bills associated with user ID " + userId);
+                }
+                written = recordChange(Collections.singletonList(BillJournal.deleteUserRecord(userId)));
+            } finally {
+                modelLock.writeLock().unlock();
+            }
+            awaitJournal(written, "Failed to save bill changes");
+        } finally {
+            held.close();
+        }
+    }
+
+    public static void deleteBills(List<Integer> billIds) {
+        Set<Integer> idsToDelete = new HashSet<>(billIds);
+        try {
+            AccountLocks.Held held = accountLocks.lockAll(customerIdsOf(idsToDelete));
+            try {
+                List<Bill> toRemove = new ArrayList<>();
+                CompletableFuture<Void> written;
+                modelLock.writeLock().lock();
+                try {
+                    ensureBillsLoaded();
+                    for (Integer billId : idsToDelete) {
+                        toRemove.addAll(billIndex.findAllById(billId));
+                    }
+                    removeBills(toRemove);
+                    List<String> records = new ArrayList<>(idsToDelete.size());
+                    for (Integer billId : idsToDelete) {
+                        records.add(BillJournal.deleteRecord(billId));
+                    }
+                    written = recordChange(records);
+                } finally {
+                    modelLock.writeLock().unlock();
+                }
+                awaitJournal(written, "Failed to save bill changes");
+                System.out.println("Deleted " + toRemove.size() + " bills with IDs: " + billIds);
+            } finally {
+                held.close();
+            }
+        } catch (Exception e) {
+            System.err.println("Error deleting bills: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Failed to delete bills: " + e.getMessage());
+        }
+    }
+
+    private static int[] customerIdsOf(Collection<Integer> billIds) {
+        ensureBillsLoaded();
+        return read(() -> {
+            List<Bill> bills = new ArrayList<>();
+            for (Integer billId : billIds) {
+                bills.addAll(billIndex.findAllById(billId));
+            }
+            int[] customerIds = new int[bills.size()];
+            for (int i = 0; i < customerIds.length; i++) {
+                customerIds[i] = bills.get(i).getCustomerId();
+            }
+            return customerIds;
+        });
+    }
+
+    // The user's own id, in case it is a customer, and the customers of its bills as a company
+    private static int[] customerIdsOfUser(int userId) {
+        ensureBillsLoaded();
+        return read(() -> {
+            List<Bill> bills = billIndex.companyBills(userId);
+            int[] customerIds = new int[bills.size() + 1];
+            customerIds[0] = userId;
+            for (int i = 0; i < bills.size(); i++) {
+                customerIds[i + 1] = bills.get(i).getCustomerId();
+            }
+            return customerIds;
+        });
+    }
+
+    // Removes a whole batch with one filtering pass over each structure, so deleting a user with
+    // many bills stays linear in the number of bills
+    private static void removeBills(List<Bill> bills) {
+        if (bills.isEmpty()) return;
+        Set<Bill> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(bills);
+        billIndex.removeAll(removed);
+        billAggregates.removeAll(removed);
+        if (removed.size() == 1) {
+            reindexBill(bills.get(0).getBillId());
+        } else {
+            // Every removal shifts the posting lists it is in; cheaper to rebuild on the next search
+            billSearch = null;
+        }
+        cachedBills = loadBills().without(removed::contains, ++billsVersion);
+    }
+
+    // Snapshots, indexes and the compaction writer share the bill objects, so a changed bill is
+    // published as a new object under a new version and the old one is left as it was
+    private static void replaceBill(Bill bill, Bill updated) {
+        long previousVersion = billsVersion;
+        cachedBills = cachedBills.withReplaced(bill, updated, ++billsVersion);
+        billIndex.replace(bill, updated);
+        billAggregates.statusChanged(bill, updated);
+        BillColumns columns = billColumns.get();
+        if (columns != null && columns.getVersion() == previousVersion) {
+            BillColumns patched = columns.withReplaced(bill, updated, billsVersion);
+            if (patched != null) publishColumns(patched);
+        }
+    }
+
+    public static User findUserById(int userId) {
+        for (User user : loadUsers()) {
+            if (user.getId() == userId) return user;
+        }
+        return null;
+    }
+
+    public static Bill findBillById(int billId) {
+        ensureBillsLoaded();
+        return read(() -> billIndex.findById(billId));
+    }
+
+    /**
+     * Ids, in ascending order, of the bills whose id, amount, customer or company name, or date or
+     * due date as yyyy-MM-dd may contain {@code query}. Callers still apply their own match. Returns
+     * null when the index cannot narrow the search: the query is too short, or it could match a
+     * payment status, which depends on the current day and is not indexed.
+     */
+    public static int[] searchBillIds(String query) {
+        if (query.length() < TrigramIndex.MIN_QUERY_LENGTH
+                || "paid".contains(query) || "unpaid".contains(query) || "overdue".contains(query)) {
+            return null;
+        }
+        ensureBillsLoaded();
+        int[] found = read(() -> billSearch != null ? billSearch.candidates(query) : null);
+        if (found != null) return found;
+        modelLock.writeLock().lock();
+        try {
+            DataSnapshot<Bill> bills = loadBills();
+            if (billSearch == null) {
+                TrigramIndex index = new TrigramIndex();
+                for (Bill bill : bills) {
+                    index.add(bill.getBillId(), billSearchText(bill));
+                }
+                billSearch = index;
+            }
+            return billSearch.candidates(query);
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+    }
+
+    // Bills sharing an id share one index entry, so it is rebuilt from whichever of them remain
+    private static void reindexBill(int billId) {
+        if (billSearch == null) return;
+        billSearch.remove(billId);
+        for (Bill bill : billIndex.findAllById(billId)) {
+            billSearch.add(billId, billSearchText(bill));
+        }
+    }
+
+    // Bills share their users' names, so this renames all of a user's bills at once. Only the
+    // search index holds copies; it is dropped and rebuilt by the next search
+    private static void renameInBills(User user) {
+        if (NameDictionary.rename(user.getId(), user.getName()) && cachedBills != null) {
+            billSearch = null;
+            touchBills();
+        }
+    }
+
+    private static String billSearchText(Bill bill) {
+        StringBuilder text = new StringBuilder()
+                .append(bill.getBillId()).append('\n')
+                .append(String.format("%.2f", bill.getValue())).append('\n');
+        if (bill.getCustomerName() != null) text.append(bill.getCustomerName()).append('\n');
+        if (bill.getCompanyName() != null) text.append(bill.getCompanyName()).append('\n');
+        if (bill.getDateMillis() != Bill.NO_DATE) text.append(SEARCH_DATE_FORMAT.format(Instant.ofEpochMilli(bill.getDateMillis()))).append('\n');
+        if (bill.getDueDateMillis() != Bill.NO_DATE) text.append(SEARCH_DATE_FORMAT.format(Instant.ofEpochMilli(bill.getDueDateMillis())));
+        return text.toString();
+    }
+
+    // Ids are only handed out once the bills are loaded, so they continue after the highest one on disk
+    public static int generateBillId() {
+        ensureBillsLoaded();
+        return lastBillId.incrementAndGet();
+    }
+
+    /** Reserves {@code count} consecutive bill ids and returns the first. */
+    public static int allocateBillIds(int count) {
+        ensureBillsLoaded();
+        return lastBillId.getAndAdd(count) + 1;
+    }
+
+    public static int generateUserId() {
+        List<User> users = loadUsers();
+        if (users.isEmpty()) return 1;
+        return users.stream().mapToInt(User::getId).max().orElse(0) + 1;
+    }
+
+    public static void updateUserAndBills(User updatedUser) {
+        CompletableFuture<Void> written;
+        modelLock.writeLock().lock();
+        try {
+            DataSnapshot<User> previous = loadUsers();
+            User oldUser = findUserById(updatedUser.getId());
+            List<User> users = new ArrayList<>(previous);
+            users.removeIf(user -> user.getId() == updatedUser.getId());
+            users.add(updatedUser);
+            saveUsers(users);
+            updateCustomerPrefixes(previous.getVersion(), oldUser, updatedUser);
+
+            ensureBillsLoaded();
+            renameInBills(updatedUser);
+            written = recordChange(Collections.singletonList(BillJournal.renameRecord(updatedUser.getId(), updatedUser.getName())));
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+        awaitJournal(written, "Failed to save bill changes");
+    }
+
+    public static void updateBillStatus(int billId, boolean isPaid) {
+        Bill bill = findBillById(billId);
+        if (bill == null) {
+            System.err.println("Bill with ID " + billId + " not found; status not updated");
+            return;
+        }
+        AccountLocks.Held held = accountLocks.lock(bill.getCustomerId());
+        try {
+            setBillStatus(billId, isPaid);
+        } finally {
+            held.close();
+        }
+    }
+
+    // The bill may have been deleted while waiting for the customer's lock, so it is looked up again
+    private static void setBillStatus(int billId, boolean isPaid) {
+        CompletableFuture<Void> written;
+        modelLock.writeLock().lock();
+        try {
+            ensureBillsLoaded();
+            Bill bill = billIndex.findById(billId);
+            if (bill == null) {
+                System.err.println("Bill with ID " + billId + " not found; status not updated");
+                return;
+            }
+            replaceBill(bill, bill.withPaid(isPaid));
+            written = recordChange(Collections.singletonList(BillJournal.statusRecord(billId, isPaid)));
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+        awaitJournal(written, "Failed to save bill changes");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,319 @@
+package billing.management.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends lines to a file from a single writer thread. Callers queue records and get a future
+ * that completes once the records are forced to disk; every record queued while the writer was
+ * busy goes out in the next write, so concurrent callers share one write and one force instead
+ * of each paying for their own. The {@link FlushPolicy} decides how many records or how much time
+ * may pass between forces.
+ *
+ * <p>All state is guarded by the lock passed in, which lets the owner of the file, such as
+ * {@link BillJournal}, move or delete it safely after calling {@link #drain()}. The writer thread
+ * only holds the lock to take records off the queue and to hand back results; it encodes, writes
+ * and forces with the lock released, so callers can keep queueing, and the owner keeps answering,
+ * while the disk is busy.
+ */
+public class GroupCommitWriter {
+    private final Object lock;
+    private final Path file;
+    private final Runnable afterWrite;
+    private FlushPolicy policy;
+    private final List<Pending> queued = new ArrayList<>();
+    private final List<Pending> unforced = new ArrayList<>();
+    private int unforcedRecords;
+    private long oldestUnforced;
+    // Set while the writer thread works on the file without the lock; only that thread uses the
+    // channel then, and drain() waits for it to finish
+    private boolean busy;
+    private FileChannel channel;
+    private boolean closed;
+    private final Thread thread;
+
+    /** {@code afterWrite} runs with the lock held after each write. */
+    public GroupCommitWriter(Object lock, Path file, FlushPolicy policy, Runnable afterWrite) {
+        this.lock = lock;
+        this.file = file;
+        this.policy = policy;
+        this.afterWrite = afterWrite;
+        this.thread = new Thread(this::run, "group-commit-" + file.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void setFlushPolicy(FlushPolicy policy) {
+        synchronized (lock) {
+            this.policy = policy;
+            lock.notifyAll();
+        }
+    }
+
+    public CompletableFuture<Void> submit(List<String> records) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (lock) {
+            if (closed) {
+                future.completeExceptionally(new IOException("Writer for " + file + " is closed"));
+                return future;
+            }
+            queued.add(new Pending(records, future));
+            lock.notifyAll();
+        }
+        return future;
+    }
+
+    /** True while the writer thread is writing or forcing, when the file may change without the lock. */
+    public boolean isWriting() {
+        synchronized (lock) {
+            return busy;
+        }
+    }
+
+    /** Writes and forces everything queued, then closes the file; the lock must be held. */
+    public void drain() {
+        if (!Thread.holdsLock(lock)) {
+            throw new IllegalStateException("drain() requires the writer lock");
+        }
+        boolean interrupted = false;
+        while (busy) {
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+
+        List<Pending> batch = takeQueued();
+        if (!batch.isEmpty()) {
+            try {
+                write(batch);
+                addUnforced(batch);
+            } catch (IOException e) {
+                batch.addAll(takeUnforced());
+                failWrite(batch, e);
+            } finally {
+                afterWrite.run();
+            }
+        }
+        force(takeUnforced());
+        closeChannel();
+    }
+
+    /** Drains the queue and stops the writer thread. */
+    public void close() {
+        synchronized (lock) {
+            drain();
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<Pending> batch;
+            synchronized (lock) {
+                try {
+                    if (!awaitWork()) return;
+                } catch (InterruptedException e) {
+                    return;
+                }
+                batch = takeQueued();
+                busy = true;
+            }
+
+            IOException error = null;
+            if (!batch.isEmpty()) {
+                try {
+                    write(batch);
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            List<Pending> forced = Collections.emptyList();
+            synchronized (lock) {
+                if (!batch.isEmpty()) afterWrite.run();
+                if (error == null) {
+                    addUnforced(batch);
+                    if (forceDue()) forced = takeUnforced();
+                } else {
+                    // Records written earlier but not forced yet are not known to be on disk either
+                    batch.addAll(takeUnforced());
+                }
+            }
+            if (error == null) {
+                force(forced);
+            } else {
+                failWrite(batch, error);
+            }
+
+            synchronized (lock) {
+                busy = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Waits with the lock held until records are queued or unforced records are due; false once closed
+    private boolean awaitWork() throws InterruptedException {
+        while (!closed) {
+            if (!queued.isEmpty()) return true;
+            if (unforced.isEmpty()) {
+                lock.wait();
+                continue;
+            }
+            long waitMillis = policy.maxDelayMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldestUnforced);
+            if (waitMillis <= 0) return true;
+            lock.wait(waitMillis);
+        }
+        return false;
+    }
+
+    private boolean forceDue() {
+        return !unforced.isEmpty() && (unforcedRecords >= policy.maxRecords
+                || System.nanoTime() - oldestUnforced >= TimeUnit.MILLISECONDS.toNanos(policy.maxDelayMillis));
+    }
+
+    private List<Pending> takeQueued() {
+        List<Pending> batch = new ArrayList<>(queued);
+        queued.clear();
+        return batch;
+    }
+
+    private void addUnforced(List<Pending> batch) {
+        if (batch.isEmpty()) return;
+        if (unforced.isEmpty()) oldestUnforced = System.nanoTime();
+        for (Pending pending : batch) {
+            unforced.add(pending);
+            unforcedRecords += pending.records.size();
+        }
+    }
+
+    private List<Pending> takeUnforced() {
+        List<Pending> taken = new ArrayList<>(unforced);
+        unforced.clear();
+        unforcedRecords = 0;
+        return taken;
+    }
+
+    private void write(List<Pending> batch) throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        StringBuilder text = new StringBuilder();
+        for (Pending pending : batch) {
+            for (String record : pending.records) {
+                text.append(record).append(System.lineSeparator());
+                if (text.length() >= 64 * 1024) {
+                    write(text);
+                }
+            }
+        }
+        write(text);
+    }
+
+    private void write(StringBuilder text) throws IOException {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+        while (bytes.hasRemaining()) channel.write(bytes);
+        text.setLength(0);
+    }
+
+    private void failWrite(List<Pending> batch, IOException error) {
+        System.err.println("Error writing to " + file + ": " + error.getMessage());
+        closeChannel();
+        fail(batch, error);
+    }
+
+    private void force(List<Pending> forced) {
+        if (forced.isEmpty()) return;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("Error forcing " + file + " to disk: " + e.getMessage());
+            closeChannel();
+            fail(forced, e);
+            return;
+        }
+        for (Pending pending : forced) {
+            pending.future.complete(null);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing " + file + ": " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    private static void fail(List<Pending> batch, IOException error) {
+        for (Pending pending : batch) {
+            pending.future.completeExceptionally(error);
+        }
+    }
+
+    private static final class Pending {
+        final List<String> records;
+        final CompletableFuture<Void> future;
+
+        Pending(List<String> records, CompletableFuture<Void> future) {
+            this.records = records;
+            this.future = future;
+        }
+    }
+
+    /**
+     * When the writer forces written records to disk: once {@code maxRecords} are waiting or the
+     * oldest has waited {@code maxDelayMillis}, whichever comes first.
+     */
+    public static final class FlushPolicy {
+        private final int maxRecords;
+        private final long maxDelayMillis;
+
+        private FlushPolicy(int maxRecords, long maxDelayMillis) {
+            if (maxRecords < 1 || maxDelayMillis < 0) {
+                throw new IllegalArgumentException("Invalid flush policy: " + maxRecords + " records, " + maxDelayMillis + " ms");
+            }
+            this.maxRecords = maxRecords;
+            this.maxDelayMillis = maxDelayMillis;
+        }
+
+        /** Forces after every write; records queued together still share the force. */
+        public static FlushPolicy perRecord() {
+            return new FlushPolicy(1, 0);
+        }
+
+        /** Forces once {@code records} records are waiting, and at the latest after a second. */
+        public static FlushPolicy everyRecords(int records) {
+            return new FlushPolicy(records, 1000);
+        }
+
+        public static FlushPolicy everyMillis(long millis) {
+            return new FlushPolicy(Integer.MAX_VALUE, millis);
+        }
+
+        @Override
+        public String toString() {
+            return "FlushPolicy[maxRecords=" + maxRecords + ", maxDelayMillis=" + maxDelayMillis + "]";
+        }
+    }
+}
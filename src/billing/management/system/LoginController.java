@@ -47,20 +47,21 @@ public class LoginController {
         }
 
         // Check users.txt
-        User authenticatedUser = authenticateUser(username, password);
-        if (authenticatedUser != null) {
-            if (authenticatedUser instanceof Admin) {
-                loadAdminInterface();
-            } else if (authenticatedUser instanceof Company) {
-                loadCompanyInterface(authenticatedUser);
-            } else if (authenticatedUser instanceof Customer) {
-                loadCustomerInterface(authenticatedUser);
+        DataAccess.submit(() -> authenticateUser(username, password), authenticatedUser -> {
+            if (authenticatedUser != null) {
+                if (authenticatedUser instanceof Admin) {
+                    loadAdminInterface();
+                } else if (authenticatedUser instanceof Company) {
+                    loadCompanyInterface(authenticatedUser);
+                } else if (authenticatedUser instanceof Customer) {
+                    loadCustomerInterface(authenticatedUser);
+                } else {
+                    showAlert("Login Failed", "Invalid user role");
+                }
             } else {
-                showAlert("Login Failed", "Invalid user role");
+                showAlert("Login Failed", "Invalid username or password");
             }
-        } else {
-            showAlert("Login Failed", "Invalid username or password");
-        }
+        }, e -> showAlert("Error", "Failed to read users: " + e.getMessage()));
     }
 
     private boolean authenticate(String username, String password) {
@@ -0,0 +1,281 @@
+package billing.management.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the pipe-delimited bills file through a memory mapping and decodes fields in place.
+ * Only the two name fields are turned into Strings; ids, amounts, timestamps and the paid
+ * flag are parsed straight from the mapped bytes. Invalid lines are skipped with the same
+ * messages as the line-based loader.
+ */
+public class MappedBillReader {
+    private static final int FIELD_COUNT = 9;
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+    private byte[] scratch = new byte[128];
+    private ByteBuffer buffer;
+    private String error;
+    private List<LineError> deferredErrors;
+
+    public List<Bill> read(Path path) throws IOException {
+        List<Bill> bills = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            int lineNumber = 0;
+            while (position < size) {
+                long length = Math.min(WINDOW_SIZE, size - position);
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int end = (int) length;
+                if (position + length < size) {
+                    // Stop the window at its last complete line; the remainder starts the next window
+                    while (end > 0 && buffer.get(end - 1) != '\n') end--;
+                    if (end == 0) {
+                        throw new IOException("Bill line longer than " + WINDOW_SIZE + " bytes at line " + (lineNumber + 1));
+                    }
+                }
+                lineNumber = parseRange(0, end, lineNumber, bills);
+                position += end;
+            }
+        } finally {
+            buffer = null;
+        }
+        return bills;
+    }
+
+    /**
+     * Parses one chunk of a larger file. Line numbers in the chunk start at 1 and errors are kept
+     * rather than printed, so the caller can report them once the chunk's line offset is known.
+     */
+    Chunk readChunk(ByteBuffer chunkBuffer, int end) {
+        Chunk chunk = new Chunk();
+        buffer = chunkBuffer;
+        deferredErrors = chunk.errors;
+        try {
+            chunk.lineCount = parseRange(0, end, 0, chunk.bills);
+        } finally {
+            buffer = null;
+            deferredErrors = null;
+        }
+        return chunk;
+    }
+
+    /** Parses the lines in [start, end) of the current window and returns the last line number used. */
+    private int parseRange(int start, int end, int lineNumber, List<Bill> bills) {
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && buffer.get(lineEnd) != '\n') lineEnd++;
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') lineEnd--;
+            lineNumber++;
+            Bill bill = parseLine(lineStart, lineEnd, lineNumber);
+            if (bill != null) bills.add(bill);
+            lineStart = next;
+        }
+        return lineNumber;
+    }
+
+    private Bill parseLine(int start, int end, int lineNumber) {
+        if (isBlank(start, end)) {
+            report(lineNumber, "Skipping empty line at line ", "");
+            return null;
+        }
+        // String.split drops trailing empty fields, so trailing pipes never count as fields
+        int fieldsEnd = end;
+        while (fieldsEnd > start && buffer.get(fieldsEnd - 1) == '|') fieldsEnd--;
+        int fields = 0;
+        int fieldFrom = start;
+        for (int i = start; i <= fieldsEnd; i++) {
+            if (i == fieldsEnd || buffer.get(i) == '|') {
+                if (fields < FIELD_COUNT) {
+                    fieldStart[fields] = fieldFrom;
+                    fieldEnd[fields] = i;
+                }
+                fields++;
+                fieldFrom = i + 1;
+            }
+        }
+        if (fields != FIELD_COUNT) {
+            report(lineNumber, "Skipping invalid bill line at line ", " (incorrect field count): " + text(start, end));
+            return null;
+        }
+
+        error = null;
+        int billId = (int) parseLong(0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        double value = parseDouble(1);
+        int customerId = (int) parseLong(2, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        int companyId = (int) parseLong(3, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        long dateMillis = parseLong(6, Long.MIN_VALUE, Long.MAX_VALUE);
+        if (error != null) {
+            report(lineNumber, "Skipping invalid bill line at line ", ": " + text(start, end) + ", Error: " + error);
+            return null;
+        }
+        if (isBlank(fieldStart[7], fieldEnd[7])) {
+            report(-1, "Empty due date for bill ID " + billId + "; skipping bill", "");
+            return null;
+        }
+        long dueDateMillis = parseLong(7, Long.MIN_VALUE, Long.MAX_VALUE);
+        if (error != null) {
+            report(lineNumber, "Skipping invalid bill line at line ", ": " + text(start, end) + ", Error: " + error);
+            return null;
+        }
+        if (dueDateMillis <= 0) {
+            report(-1, "Invalid due date timestamp " + dueDateMillis + " for bill ID " + billId + "; skipping bill", "");
+            return null;
+        }
+        boolean isPaid = parseBoolean(8);
+        String customerName = trimmedText(4);
+        String companyName = trimmedText(5);
+        return new Bill(billId, value, customerId, companyId, customerName, companyName,
+                dateMillis, dueDateMillis, isPaid);
+    }
+
+    private void report(int lineNumber, String prefix, String suffix) {
+        LineError lineError = new LineError(lineNumber, prefix, suffix);
+        if (deferredErrors != null) {
+            deferredErrors.add(lineError);
+        } else {
+            System.err.println(lineError.format(0));
+        }
+    }
+
+    private long parseLong(int field, long min, long max) {
+        if (error != null) return 0;
+        int i = skipLeading(fieldStart[field], fieldEnd[field]);
+        int end = skipTrailing(i, fieldEnd[field]);
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            error = "For input string: \"" + text(fieldStart[field], fieldEnd[field]).trim() + "\"";
+            return 0;
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || result > (Long.MAX_VALUE - digit) / 10) {
+                error = "For input string: \"" + text(fieldStart[field], fieldEnd[field]).trim() + "\"";
+                return 0;
+            }
+            result = result * 10 + digit;
+        }
+        result = negative ? -result : result;
+        if (result < min || result > max) {
+            error = "For input string: \"" + text(fieldStart[field], fieldEnd[field]).trim() + "\"";
+            return 0;
+        }
+        return result;
+    }
+
+    private double parseDouble(int field) {
+        if (error != null) return 0;
+        int from = skipLeading(fieldStart[field], fieldEnd[field]);
+        int end = skipTrailing(from, fieldEnd[field]);
+        int i = from;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (seenPoint) fractionDigits++;
+            } else {
+                break;
+            }
+        }
+        // Up to 15 significant digits and a scale of at most 10^22 are both exact in a double,
+        // so one division gives the same correctly rounded result as Double.parseDouble
+        if (i == end && digits > 0 && digits <= 15 && fractionDigits < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(text(from, end));
+        } catch (NumberFormatException e) {
+            error = e.getMessage();
+            return 0;
+        }
+    }
+
+    private boolean parseBoolean(int field) {
+        int i = skipLeading(fieldStart[field], fieldEnd[field]);
+        int end = skipTrailing(i, fieldEnd[field]);
+        if (end - i != 4) return false;
+        return (buffer.get(i) | 0x20) == 't' && (buffer.get(i + 1) | 0x20) == 'r'
+                && (buffer.get(i + 2) | 0x20) == 'u' && (buffer.get(i + 3) | 0x20) == 'e';
+    }
+
+    private String trimmedText(int field) {
+        int from = skipLeading(fieldStart[field], fieldEnd[field]);
+        return text(from, skipTrailing(from, fieldEnd[field]));
+    }
+
+    private String text(int from, int to) {
+        int length = to - from;
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private boolean isBlank(int from, int to) {
+        return skipLeading(from, to) == to;
+    }
+
+    private int skipLeading(int from, int to) {
+        while (from < to && (buffer.get(from) & 0xFF) <= ' ') from++;
+        return from;
+    }
+
+    private int skipTrailing(int from, int to) {
+        while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') to--;
+        return to;
+    }
+
+    static class Chunk {
+        final List<Bill> bills = new ArrayList<>();
+        final List<LineError> errors = new ArrayList<>();
+        int lineCount;
+    }
+
+    static class LineError {
+        private final int lineNumber;
+        private final String prefix;
+        private final String suffix;
+
+        LineError(int lineNumber, String prefix, String suffix) {
+            this.lineNumber = lineNumber;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        String format(int lineOffset) {
+            return lineNumber < 0 ? prefix : prefix + (lineNumber + lineOffset) + suffix;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package billing.management.system;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One shared display name per user id. A bill keeps the {@link Name} of its customer and of its
+ * company instead of its own copies of the strings, so each name is held once however many bills
+ * refer to it, and renaming a user is a single update that every one of its bills sees.
+ */
+public final class NameDictionary {
+    // Bills are built on several loader threads at once, so lookups must not share one lock
+    private static final ConcurrentHashMap<Integer, Name> names = new ConcurrentHashMap<>();
+
+    private NameDictionary() {
+    }
+
+    /**
+     * The shared name of a user. {@code fallback}, typically the name stored with a bill, is only
+     * used when nothing is known about the user yet.
+     */
+    public static Name of(int userId, String fallback) {
+        Name name = names.get(userId);
+        return name != null ? name : names.computeIfAbsent(userId, id -> new Name(fallback));
+    }
+
+    /** Sets the name of a user for all bills referring to it; returns false if it was already current. */
+    public static boolean rename(int userId, String value) {
+        Name name = names.putIfAbsent(userId, new Name(value));
+        if (name == null) return false;
+        synchronized (name) {
+            if (Objects.equals(value, name.value)) return false;
+            name.value = value;
+            return true;
+        }
+    }
+
+    public static final class Name {
+        private volatile String value;
+
+        private Name(String value) {
+            this.value = value;
+        }
+
+        public String get() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package billing.management.system;
+
+import java.util.Collections;
+import java.util.List;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.Pagination;
+import javafx.scene.control.TableView;
+
+/**
+ * Shows one page of a row list in a TableView driven by a Pagination control. Only the rows of the
+ * visible page are fetched from the list, so a page flip costs the page size no matter how many
+ * rows there are, and the list itself may be a lazy, index-backed view. The pagination gets a
+ * single page listener for the lifetime of the table.
+ */
+public class PagedTable<T> {
+    private final TableView<T> table;
+    private final Pagination pagination;
+    private final int pageSize;
+    private List<T> rows = Collections.emptyList();
+
+    public PagedTable(TableView<T> table, Pagination pagination, int pageSize) {
+        this.table = table;
+        this.pagination = pagination;
+        this.pageSize = pageSize;
+        if (pagination != null) {
+            pagination.currentPageIndexProperty().addListener((obs, oldIndex, newIndex) -> showPage(newIndex.intValue()));
+        }
+    }
+
+    /** Replaces the rows and goes back to the first page; {@code rows} must not change while shown. */
+    public void setRows(List<T> rows) {
+        this.rows = rows;
+        if (pagination != null) {
+            pagination.setPageCount(getPageCount());
+            if (pagination.getCurrentPageIndex() != 0) {
+                pagination.setCurrentPageIndex(0);
+                return;
+            }
+        }
+        showPage(0);
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    public int getPageCount() {
+        return Math.max(1, (rows.size() + pageSize - 1) / pageSize);
+    }
+
+    private void showPage(int pageIndex) {
+        if (table == null) return;
+        int fromIndex = Math.min(pageIndex * pageSize, rows.size());
+        int toIndex = Math.min(fromIndex + pageSize, rows.size());
+        ObservableList<T> page = FXCollections.observableArrayList();
+        for (int i = fromIndex; i < toIndex; i++) {
+            page.add(rows.get(i));
+        }
+        table.setItems(page);
+    }
+}
@@ -0,0 +1,140 @@
+package billing.management.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits the bills file into byte ranges that end on newlines and parses them on a fork-join pool.
+ * Chunks are merged in file order, so the result and the reported line numbers are the same as a
+ * sequential {@link MappedBillReader} pass.
+ */
+public class ParallelBillLoader {
+    private static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int threads;
+
+    public ParallelBillLoader(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public List<Bill> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] boundaries = splitAtNewlines(channel);
+            int chunkCount = boundaries.length - 1;
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            List<MappedBillReader.Chunk> chunks;
+            try {
+                chunks = pool.invoke(new ChunkTask(channel, boundaries, 0, chunkCount));
+            } finally {
+                pool.shutdown();
+            }
+
+            int total = 0;
+            for (MappedBillReader.Chunk chunk : chunks) total += chunk.bills.size();
+            List<Bill> bills = new ArrayList<>(total);
+            int lineOffset = 0;
+            for (MappedBillReader.Chunk chunk : chunks) {
+                for (MappedBillReader.LineError error : chunk.errors) {
+                    System.err.println(error.format(lineOffset));
+                }
+                bills.addAll(chunk.bills);
+                lineOffset += chunk.lineCount;
+            }
+            System.out.println("Parsed " + chunkCount + " chunks of " + path + " on " + threads + " threads");
+            return bills;
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private long[] splitAtNewlines(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size / ((long) threads * CHUNKS_PER_THREAD) + 1));
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long position = chunkSize;
+        while (position < size) {
+            long boundary = nextLineStart(channel, position, size, probe);
+            if (boundary >= size) break;
+            boundaries.add(boundary);
+            position = boundary + chunkSize;
+        }
+        boundaries.add(size);
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) result[i] = boundaries.get(i);
+        return result;
+    }
+
+    private long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe) throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static class ChunkTask extends RecursiveTask<List<MappedBillReader.Chunk>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long[] boundaries;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, long[] boundaries, int from, int to) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<MappedBillReader.Chunk> compute() {
+            if (to - from == 1) {
+                long start = boundaries[from];
+                long length = boundaries[to] - start;
+                List<MappedBillReader.Chunk> result = new ArrayList<>(1);
+                try {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                    result.add(new MappedBillReader().readChunk(buffer, (int) length));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(channel, boundaries, from, middle);
+            ChunkTask right = new ChunkTask(channel, boundaries, middle, to);
+            right.fork();
+            List<MappedBillReader.Chunk> result = left.compute();
+            result.addAll(right.join());
+            return result;
+        }
+    }
+}
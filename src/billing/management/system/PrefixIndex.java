@@ -0,0 +1,121 @@
+package billing.management.system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Sorted array of lowercase keys pointing at values, for autocomplete. Every value is filed under
+ * several keys, and a prefix lookup is a binary search followed by a short walk over the keys
+ * that start with the prefix, so it stops as soon as enough distinct values are found. Values are
+ * compared by identity.
+ */
+public class PrefixIndex<T> {
+    private final Function<? super T, String[]> keyFunction;
+    private String[] keys = new String[16];
+    private Object[] values = new Object[16];
+    private int size;
+
+    /** {@code keyFunction} gives the keys to file a value under; they are lowercased here. */
+    public PrefixIndex(Function<? super T, String[]> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    public void rebuild(Collection<? extends T> source) {
+        List<Object[]> entries = new ArrayList<>();
+        for (T value : source) {
+            for (String key : keysOf(value)) {
+                entries.add(new Object[] {key, value});
+            }
+        }
+        entries.sort((a, b) -> ((String) a[0]).compareTo((String) b[0]));
+        int capacity = Math.max(16, entries.size());
+        keys = new String[capacity];
+        values = new Object[capacity];
+        size = entries.size();
+        for (int i = 0; i < size; i++) {
+            keys[i] = (String) entries.get(i)[0];
+            values[i] = entries.get(i)[1];
+        }
+    }
+
+    public void add(T value) {
+        for (String key : keysOf(value)) {
+            int position = lowerBound(key);
+            if (size == keys.length) {
+                int capacity = size + (size >> 1);
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            System.arraycopy(values, position, values, position + 1, size - position);
+            keys[position] = key;
+            values[position] = value;
+            size++;
+        }
+    }
+
+    /** Removes {@code value}, which must still have the keys it was added with. */
+    public void remove(T value) {
+        for (String key : keysOf(value)) {
+            for (int i = lowerBound(key); i < size && keys[i].equals(key); i++) {
+                if (values[i] == value) {
+                    System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                    System.arraycopy(values, i + 1, values, i, size - i - 1);
+                    size--;
+                    keys[size] = null;
+                    values[size] = null;
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Up to {@code limit} distinct values with a key starting with {@code prefix}, in key order. */
+    @SuppressWarnings("unchecked")
+    public List<T> find(String prefix, int limit) {
+        String lowerPrefix = prefix.toLowerCase();
+        if (limit <= 0) return Collections.emptyList();
+        List<T> found = new ArrayList<>(Math.min(limit, 64));
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = lowerBound(lowerPrefix); i < size && keys[i].startsWith(lowerPrefix); i++) {
+            if (seen.add(values[i])) {
+                found.add((T) values[i]);
+                if (found.size() == limit) break;
+            }
+        }
+        return found;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private String[] keysOf(T value) {
+        String[] valueKeys = keyFunction.apply(value);
+        for (int i = 0; i < valueKeys.length; i++) {
+            valueKeys[i] = valueKeys[i].toLowerCase();
+        }
+        return valueKeys;
+    }
+
+    // First position whose key is at or after the given key
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,93 @@
+package billing.management.system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import javafx.animation.PauseTransition;
+import javafx.concurrent.Task;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+/**
+ * Search-as-you-type for one search box. Keystrokes are debounced and cancel the search in
+ * flight, so only the text the user paused on is searched. When the new query contains the
+ * previous one under the same scope and data version, the previous results are narrowed in memory
+ * instead of searching everything again; substring matches can only shrink as the query grows.
+ * The scope holds whatever else the search depends on, such as the sort order or a date range.
+ */
+public class SearchSession<T> {
+    private static final Duration TYPING_DELAY = Duration.millis(200);
+
+    private final DataAccess.Latest request;
+    private final LongSupplier dataVersion;
+    private final PauseTransition pause = new PauseTransition(TYPING_DELAY);
+    private Results<T> last;
+
+    /** {@code dataVersion} is read on the I/O thread and must change whenever the searched data does. */
+    public SearchSession(DataAccess.Latest request, LongSupplier dataVersion) {
+        this.request = request;
+        this.dataVersion = dataVersion;
+    }
+
+    /** Runs {@code action} once typing in {@code field} pauses; {@code field} may be null. */
+    public void watch(TextField field, Runnable action) {
+        if (field == null) return;
+        pause.setOnFinished(event -> action.run());
+        field.textProperty().addListener((obs, oldText, newText) -> {
+            request.cancel();
+            pause.playFromStart();
+        });
+    }
+
+    /**
+     * Searches for {@code query} now. {@code search} finds every match and {@code matches} tests a
+     * single item against the query; both run on the I/O thread.
+     */
+    public Task<?> submit(String query, Object scope, Callable<List<T>> search, Predicate<? super T> matches,
+                         Consumer<? super List<T>> onSuccess, Consumer<Throwable> onFailure) {
+        pause.stop();
+        Results<T> previous = last;
+        boolean narrow = previous != null && !previous.query.isEmpty()
+                && query.contains(previous.query) && Objects.equals(previous.scope, scope);
+        Task<Results<T>> task = request.submit(() -> {
+            long version = dataVersion.getAsLong();
+            List<T> items;
+            if (narrow && previous.version == version) {
+                items = new ArrayList<>();
+                for (T item : previous.items) {
+                    if (matches.test(item)) items.add(item);
+                }
+            } else {
+                items = search.call();
+            }
+            return new Results<>(query, scope, version, items);
+        }, results -> {
+            last = results;
+            onSuccess.accept(results.items);
+        }, onFailure);
+        return task;
+    }
+
+    public void cancel() {
+        pause.stop();
+        request.cancel();
+    }
+
+    private static final class Results<T> {
+        final String query;
+        final Object scope;
+        final long version;
+        final List<T> items;
+
+        Results(String query, Object scope, long version, List<T> items) {
+            this.query = query;
+            this.scope = scope;
+            this.version = version;
+            this.items = items;
+        }
+    }
+}
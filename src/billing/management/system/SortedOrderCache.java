@@ -0,0 +1,32 @@
+package billing.management.system;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the sorted orders of a user list, one per sort option, until the users or bills they
+ * were computed from change. Page flips and repeated searches then reuse the order instead of
+ * sorting again. Versions are those of the user and bill snapshots the order was sorted from.
+ */
+public class SortedOrderCache<T> {
+    private final Map<String, List<T>> orders = new HashMap<>();
+    private long usersVersion = -1;
+    private long billsVersion = -1;
+
+    public synchronized List<T> get(long usersVersion, long billsVersion, String sortOption, Supplier<List<T>> sorter) {
+        if (usersVersion != this.usersVersion || billsVersion != this.billsVersion) {
+            orders.clear();
+            this.usersVersion = usersVersion;
+            this.billsVersion = billsVersion;
+        }
+        List<T> order = orders.get(sortOption);
+        if (order == null) {
+            order = Collections.unmodifiableList(sorter.get());
+            orders.put(sortOption, order);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,159 @@
+package billing.management.system;
+
+import java.util.Arrays;
+
+/**
+ * Inverted index from the three-character substrings of a text to the documents containing them,
+ * so a substring search only looks at documents that contain every trigram of the query instead
+ * of scanning them all. Documents are identified by int ids and posting lists are kept as sorted
+ * int arrays, which makes the lookup an intersection that is bounded by the rarest trigram.
+ * Matching is case-insensitive. Trigrams are packed into int keys and very wide characters may
+ * share a key, so candidates can include false positives and callers must still check the text.
+ */
+public class TrigramIndex {
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final int[] NO_KEYS = new int[0];
+
+    private final IntObjectMap<Postings> postings = new IntObjectMap<>();
+    private final IntObjectMap<int[]> documentKeys = new IntObjectMap<>();
+
+    /** Indexes {@code text} under {@code id}; adding to an existing id keeps what it already matched. */
+    public void add(int id, String text) {
+        int[] keys = keysOf(text);
+        int[] existing = documentKeys.get(id);
+        if (existing != null) {
+            keys = union(existing, keys);
+        }
+        for (int key : keys) {
+            postings.computeIfAbsent(key, k -> new Postings()).add(id);
+        }
+        documentKeys.put(id, keys);
+    }
+
+    public void remove(int id) {
+        int[] keys = documentKeys.remove(id);
+        if (keys == null) return;
+        for (int key : keys) {
+            Postings list = postings.get(key);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        documentKeys.clear();
+    }
+
+    public int size() {
+        return documentKeys.size();
+    }
+
+    /**
+     * Ids, in ascending order, of the documents that contain every trigram of {@code query}, or
+     * null when the query is shorter than {@link #MIN_QUERY_LENGTH} and cannot narrow the search.
+     */
+    public int[] candidates(String query) {
+        if (query.length() < MIN_QUERY_LENGTH) return null;
+        int[] keys = keysOf(query);
+        Postings[] lists = new Postings[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = postings.get(keys[i]);
+            if (lists[i] == null) return NO_KEYS;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int size = result.length;
+        for (int i = 1; i < lists.length && size > 0; i++) {
+            Postings list = lists[i];
+            int kept = 0;
+            int from = 0;
+            for (int j = 0; j < size; j++) {
+                int position = Arrays.binarySearch(list.ids, from, list.size, result[j]);
+                if (position >= 0) {
+                    result[kept++] = result[j];
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+            }
+            size = kept;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    // Distinct trigram keys of the text in ascending order
+    private static int[] keysOf(String text) {
+        int count = text.length() - (MIN_QUERY_LENGTH - 1);
+        if (count <= 0) return NO_KEYS;
+        int[] keys = new int[count];
+        char c0 = Character.toLowerCase(text.charAt(0));
+        char c1 = Character.toLowerCase(text.charAt(1));
+        for (int i = 0; i < count; i++) {
+            char c2 = Character.toLowerCase(text.charAt(i + 2));
+            keys[i] = (c0 & 0x7FF) << 21 | (c1 & 0x7FF) << 10 | (c2 & 0x3FF);
+            c0 = c1;
+            c1 = c2;
+        }
+        Arrays.sort(keys);
+        int distinct = 1;
+        for (int i = 1; i < count; i++) {
+            if (keys[i] != keys[distinct - 1]) keys[distinct++] = keys[i];
+        }
+        return distinct == count ? keys : Arrays.copyOf(keys, distinct);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            merged[size++] = next;
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    // Sorted ids of the documents containing one trigram; ids usually arrive in ascending order
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && id <= ids[size - 1]) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) return;
+                insert(-position - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) return false;
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private void insert(int position, int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -57,11 +58,14 @@ public class ViewBillsController {
     }
 
     private void loadBills() {
-        List<Bill> bills = FileManager.loadBillsForUser(user.getId());
-        billsTable.setItems(FXCollections.observableArrayList(bills));
-        if (bills.isEmpty()) {
-            billsTable.setPlaceholder(new javafx.scene.text.Text("No bills found for this user."));
-        }
+        int userId = user.getId();
+        Task<List<Bill>> task = DataAccess.submit(() -> FileManager.loadBillsForUser(userId), bills -> {
+            billsTable.setItems(FXCollections.observableArrayList(bills));
+            if (bills.isEmpty()) {
+                billsTable.setPlaceholder(new javafx.scene.text.Text("No bills found for this user."));
+            }
+        }, e -> billsTable.setPlaceholder(new javafx.scene.text.Text("Failed to load bills: " + e.getMessage())));
+        DataAccess.showLoading(billsTable, task);
     }
 
     @FXML
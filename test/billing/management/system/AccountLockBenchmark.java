@@ -0,0 +1,70 @@
+package billing.management.system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bill status updates from 1, 2, 4 and so on up to 64 threads, each on its own customer's bill,
+ * with per-customer lock stripes and with one lock shared by all customers. With stripes the
+ * threads overlap their waits for the journal and share its forces; with one lock every update
+ * waits for the one before. Each thread count runs once to warm up before it is measured.
+ *
+ * <p>Usage: {@code AccountLockBenchmark [max threads] [updates per thread]}
+ */
+public class AccountLockBenchmark {
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int updates = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        System.out.println("Data directory: " + TestData.useTempDir());
+
+        Company company = TestData.addCompany("Benchmark Power");
+        int[] billIds = new int[maxThreads];
+        for (int i = 0; i < maxThreads; i++) {
+            Bill bill = TestData.newBill(TestData.addCustomer("Benchmark Customer " + i), company, 10, 1, false);
+            FileManager.saveBill(bill);
+            billIds[i] = bill.getBillId();
+        }
+
+        List<String> results = new ArrayList<>();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            int[] used = Arrays.copyOf(billIds, threads);
+            for (boolean striped : new boolean[] {false, true}) {
+                FileManager.setStripedAccountLocks(striped);
+                run(used, updates);
+                long millis = run(used, updates);
+                results.add(String.format("%-7s %2d threads x %d updates: %5d ms, %7.0f updates/s",
+                        striped ? "striped" : "global", threads, updates, millis, threads * updates * 1000.0 / millis));
+            }
+        }
+        FileManager.setStripedAccountLocks(true);
+        results.forEach(System.out::println);
+    }
+
+    private static long run(int[] billIds, int updates) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(billIds.length);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>();
+        for (int billId : billIds) {
+            running.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < updates; i++) {
+                    FileManager.updateBillStatus(billId, i % 2 == 0);
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : running) {
+            future.get();
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        executor.shutdown();
+        return Math.max(millis, 1);
+    }
+}
@@ -0,0 +1,82 @@
+package billing.management.system;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BillJournalTest {
+    private BillJournal journal;
+    // Journal lines are parsed back to the bills they were written from
+    private final Map<String, Bill> written = new HashMap<>();
+
+    @Before
+    public void createJournal() throws IOException {
+        Path dir = Files.createTempDirectory("bill-journal-test");
+        journal = new BillJournal(dir.resolve("bills.txt").toString());
+    }
+
+    private String append(int billId, int customerId, int companyId) {
+        Bill bill = new Bill(billId, 10, customerId, companyId, "Customer " + customerId, "Company " + companyId,
+                1_700_000_000_000L, 1_702_000_000_000L, false);
+        written.put(bill.toDataString(), bill);
+        return BillJournal.appendRecord(bill);
+    }
+
+    private List<Integer> replayedIds(List<Bill> base) {
+        List<Bill> bills = new ArrayList<>(base);
+        journal.replay(bills, written::get);
+        List<Integer> ids = new ArrayList<>();
+        for (Bill bill : bills) {
+            ids.add(bill.getBillId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void deletedUserKeepsBillsOfLaterUserWithSameId() throws IOException {
+        journal.appendAll(Arrays.asList(
+                append(1, 10, 2),
+                append(2, 11, 3),
+                BillJournal.deleteUserRecord(2),
+                // A new company is given the freed id 2
+                append(3, 10, 2)));
+
+        assertEquals(Arrays.asList(2, 3), replayedIds(new ArrayList<>()));
+    }
+
+    @Test
+    public void deletedUserRemovesBaseFileBills() throws IOException {
+        List<Bill> base = new ArrayList<>();
+        base.add(new Bill(1, 5, 20, 30, "a", "b", 1_700_000_000_000L, 1_702_000_000_000L, true));
+        base.add(new Bill(2, 5, 21, 30, "c", "b", 1_700_000_000_000L, 1_702_000_000_000L, true));
+        journal.appendAll(Arrays.asList(BillJournal.deleteUserRecord(20), append(3, 20, 31)));
+
+        assertEquals(Arrays.asList(2, 3), replayedIds(base));
+    }
+
+    @Test
+    public void deleteRemovesOnlyEarlierBills() throws IOException {
+        journal.appendAll(Arrays.asList(
+                append(1, 10, 2),
+                BillJournal.deleteRecord(1),
+                BillJournal.statusRecord(1, true),
+                append(2, 10, 2),
+                BillJournal.statusRecord(2, true)));
+
+        List<Bill> bills = new ArrayList<>();
+        journal.replay(bills, written::get);
+        assertEquals(1, bills.size());
+        assertEquals(2, bills.get(0).getBillId());
+        assertTrue(bills.get(0).isIspaid());
+    }
+}
@@ -0,0 +1,100 @@
+package billing.management.system;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Heap retained per bill by the current {@link Bill} layout, with dates in epoch milliseconds,
+ * amounts in cents and names shared through {@link NameDictionary}, next to the layout it
+ * replaced: a double, two Date objects and the customer and company name strings of every bill.
+ * Memory is read after a full GC with all bills of the file held, so run it in its own JVM with
+ * enough heap, e.g. {@code java -Xmx4g BillMemoryReport 1000000}.
+ *
+ * <p>Usage: {@code BillMemoryReport [bills file | bill count]}
+ */
+public class BillMemoryReport {
+    public static void main(String[] args) throws Exception {
+        Path file;
+        if (args.length > 0 && !args[0].matches("\\d+")) {
+            file = Paths.get(args[0]);
+        } else {
+            file = Files.createTempFile("bills-memory", ".txt");
+            file.toFile().deleteOnExit();
+            ParallelLoaderBenchmark.writeBills(file, args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000);
+        }
+
+        long before = usedHeap();
+        List<Bill> bills = new MappedBillReader().read(file);
+        long current = usedHeap() - before;
+        int count = bills.size();
+        Reference.reachabilityFence(bills);
+        bills = null;
+
+        before = usedHeap();
+        List<PreviousBill> previous = readPrevious(file);
+        long replaced = usedHeap() - before;
+        Reference.reachabilityFence(previous);
+
+        System.out.printf("%s: %d bills, %d bytes per line on disk%n", file, count, Files.size(file) / Math.max(count, 1));
+        System.out.printf("previous layout %5d bytes per bill%n", replaced / count);
+        System.out.printf("current layout  %5d bytes per bill (%.0f%% less)%n", current / count, 100.0 * (replaced - current) / replaced);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Parses the way the loader did before, with a String per field and a Date per timestamp
+    private static List<PreviousBill> readPrevious(Path file) throws IOException {
+        List<PreviousBill> bills = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\\|");
+                if (parts.length != 9) continue;
+                bills.add(new PreviousBill(Integer.parseInt(parts[0]), Double.parseDouble(parts[1]),
+                        Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), parts[4], parts[5],
+                        new Date(Long.parseLong(parts[6])), new Date(Long.parseLong(parts[7])), Boolean.parseBoolean(parts[8])));
+            }
+        }
+        return bills;
+    }
+
+    private static final class PreviousBill {
+        final int billId;
+        final double value;
+        final int customerId;
+        final int companyId;
+        final String customerName;
+        final String companyName;
+        final Date date;
+        final Date dueDate;
+        final boolean isPaid;
+
+        PreviousBill(int billId, double value, int customerId, int companyId, String customerName, String companyName,
+                     Date date, Date dueDate, boolean isPaid) {
+            this.billId = billId;
+            this.value = value;
+            this.customerId = customerId;
+            this.companyId = companyId;
+            this.customerName = customerName;
+            this.companyName = companyName;
+            this.date = date;
+            this.dueDate = dueDate;
+            this.isPaid = isPaid;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package billing.management.system;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * The bill analytics query over the columnar {@link BillColumns} table against the scan it
+ * replaced, which read every field through the {@link Bill} objects. Both compute the matching
+ * count, total, paid and overdue counts and monthly revenue for each status filter over all bills;
+ * their results are compared before timing.
+ *
+ * <p>Usage: {@code BillScanBenchmark [bill count] [rounds]}
+ */
+public class BillScanBenchmark {
+    private static final String[] STATUSES = {BillQuery.ALL, BillQuery.PAID, BillQuery.UNPAID, BillQuery.OVERDUE};
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<Bill> bills = generate(count);
+        BillColumns columns = new BillColumns(bills, 1);
+        ZoneId zone = ZoneId.systemDefault();
+        long overdueBefore = LocalDate.now(zone).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        for (String status : STATUSES) {
+            BillQuery.Result result = new BillQuery(null, null, status).run(columns);
+            ObjectScan scan = new ObjectScan(bills, status, overdueBefore, zone);
+            if (result.size() != scan.count || result.getPaidCount() != scan.paid || result.getOverdueCount() != scan.overdue
+                    || Math.abs(result.getTotal() - scan.total) > 0.005 * count) {
+                throw new AssertionError("Results differ for " + status);
+            }
+        }
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            time(bills, columns, overdueBefore, zone, rounds, warmup == 1);
+        }
+    }
+
+    private static void time(List<Bill> bills, BillColumns columns, long overdueBefore, ZoneId zone, int rounds, boolean print) {
+        long started = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String status : STATUSES) {
+                new ObjectScan(bills, status, overdueBefore, zone);
+            }
+        }
+        double objects = (System.nanoTime() - started) / 1e6 / (rounds * STATUSES.length);
+        started = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String status : STATUSES) {
+                new BillQuery(null, null, status).run(columns);
+            }
+        }
+        double columnar = (System.nanoTime() - started) / 1e6 / (rounds * STATUSES.length);
+        if (print) {
+            System.out.printf("%d bills: object scan %.1f ms, columnar %.1f ms per query (%.1fx)%n",
+                    bills.size(), objects, columnar, objects / columnar);
+        }
+    }
+
+    private static List<Bill> generate(int count) {
+        Random random = new Random(7);
+        long start = LocalDate.now().minusYears(4).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<Bill> bills = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            int customerId = 1 + random.nextInt(50_000);
+            int companyId = 50_001 + random.nextInt(500);
+            long date = start + (long) (random.nextDouble() * 4 * 365 * 86_400_000L);
+            bills.add(new Bill(id, random.nextInt(100_000) / 100.0, customerId, companyId, "customer " + customerId,
+                    "company " + companyId, date, date + 2_592_000_000L, random.nextBoolean()));
+        }
+        bills.sort(Comparator.comparingLong(Bill::getDateMillis));
+        return bills;
+    }
+
+    // The per-object scan BillQuery used before the columnar table
+    private static final class ObjectScan {
+        int count;
+        int paid;
+        int overdue;
+        double total;
+        final Map<YearMonth, Double> monthly = new TreeMap<>();
+
+        ObjectScan(List<Bill> bills, String status, long overdueBefore, ZoneId zone) {
+            YearMonth month = null;
+            long monthFrom = 0;
+            long monthUntil = 0;
+            double monthRevenue = 0;
+            for (Bill bill : bills) {
+                boolean isPaid = bill.isIspaid();
+                boolean isOverdue = !isPaid && bill.getDueDateMillis() != Bill.NO_DATE && bill.getDueDateMillis() < overdueBefore;
+                if (status.equals(BillQuery.PAID) && !isPaid || status.equals(BillQuery.UNPAID) && isPaid
+                        || status.equals(BillQuery.OVERDUE) && !isOverdue) {
+                    continue;
+                }
+                count++;
+                total += bill.getValue();
+                if (isPaid) paid++;
+                if (isOverdue) overdue++;
+                long time = bill.getDateMillis();
+                if (month == null || time < monthFrom || time >= monthUntil) {
+                    if (month != null) monthly.merge(month, monthRevenue, Double::sum);
+                    month = YearMonth.from(Instant.ofEpochMilli(time).atZone(zone));
+                    monthFrom = month.atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+                    monthUntil = month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+                    monthRevenue = 0;
+                }
+                monthRevenue += bill.getValue();
+            }
+            if (month != null) monthly.merge(month, monthRevenue, Double::sum);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package billing.management.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BinaryBillStoreTest {
+    private static final int UNNAMED_COMPANY = 900_000;
+    private static final int UNREAD_COMPANY = 800_000;
+
+    private Path file;
+    private final List<Bill> bills = new ArrayList<>();
+
+    @Before
+    public void writeStore() throws IOException {
+        file = Files.createTempFile("bills", ".bin");
+        file.toFile().deleteOnExit();
+        for (int i = 1; i <= 100; i++) {
+            // Every seventh amount is not a whole number of cents and keeps its raw double
+            double value = i % 7 == 0 ? i + 0.125 : i + 0.5;
+            // Every fifth bill has no company name, under a company id the name dictionary has not
+            // seen, so only the store's missing-name reference can give it back
+            boolean unnamed = i % 5 == 0;
+            bills.add(new Bill(i, value, 1000 + i % 10, unnamed ? UNNAMED_COMPANY + i : 2000 + i % 3, "customer " + i % 10,
+                    unnamed ? null : "company " + i % 3, 1_700_000_000_000L + i, 1_702_000_000_000L + i, i % 2 == 0));
+        }
+        BinaryBillStore.write(file, bills);
+    }
+
+    private void assertSameBills(List<Bill> read) {
+        assertEquals(bills.size(), read.size());
+        for (int i = 0; i < bills.size(); i++) {
+            assertEquals(bills.get(i).toDataString(), read.get(i).toDataString());
+        }
+    }
+
+    @Test
+    public void readsBackWhatWasWritten() throws IOException {
+        assertSameBills(BinaryBillStore.read(file));
+    }
+
+    @Test
+    public void readsBackMissingNames() throws IOException {
+        // Reading a bill looks its company up in the name dictionary, which already knows every
+        // company id written above. Point the unnamed bills at ids no bill has used yet, so the
+        // name read back can only come from the store's missing-name reference
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long records = channel.size() - (long) bills.size() * BinaryBillStore.RECORD_SIZE;
+            for (int i = 0; i < bills.size(); i++) {
+                if (bills.get(i).getCompanyName() != null) continue;
+                ByteBuffer companyId = ByteBuffer.allocate(4).putInt(UNREAD_COMPANY + i);
+                companyId.flip();
+                channel.write(companyId, records + (long) i * BinaryBillStore.RECORD_SIZE + 8);
+            }
+        }
+        List<Bill> read = BinaryBillStore.read(file);
+        for (int i = 0; i < bills.size(); i++) {
+            if (bills.get(i).getCompanyName() != null) continue;
+            assertEquals(UNREAD_COMPANY + i, read.get(i).getCompanyId());
+            assertNull(read.get(i).getCompanyName());
+        }
+    }
+
+    @Test
+    public void readsAcrossMappedWindows() throws IOException {
+        for (int recordsPerWindow : new int[] {1, 2, 7, 64}) {
+            assertSameBills(BinaryBillStore.read(file, recordsPerWindow));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedFile() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+        BinaryBillStore.read(file, 7);
+    }
+}
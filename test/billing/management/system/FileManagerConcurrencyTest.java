@@ -0,0 +1,136 @@
+package billing.management.system;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Many threads saving bills, changing their status, allocating ids, searching and reading totals
+ * at once. Afterwards no id may have been handed out twice, the indexes and totals must agree with
+ * each other, and the files read back from disk must hold the same bills as the cache.
+ */
+public class FileManagerConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 150;
+
+    @BeforeClass
+    public static void useTempDataDir() {
+        TestData.useTempDir();
+    }
+
+    @Test(timeout = 120_000)
+    public void concurrentChangesKeepIndexesTotalsAndFilesConsistent() throws Exception {
+        Company company = TestData.addCompany("Stress Company");
+        Customer[] customers = new Customer[4];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = TestData.addCustomer("Stress Customer " + i);
+        }
+        Set<Integer> handedOut = ConcurrentHashMap.newKeySet();
+        List<Integer> saved = new CopyOnWriteArrayList<>();
+        ConcurrentLinkedQueue<String> problems = new ConcurrentLinkedQueue<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            Random random = new Random(thread);
+            running.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    Customer customer = customers[random.nextInt(customers.length)];
+                    int operation = random.nextInt(10);
+                    if (operation < 4) {
+                        Bill bill = TestData.newBill(customer, company, 1 + random.nextInt(500), random.nextInt(60), false);
+                        if (!handedOut.add(bill.getBillId())) problems.add("Bill id handed out twice: " + bill.getBillId());
+                        FileManager.saveBill(bill);
+                        saved.add(bill.getBillId());
+                    } else if (operation < 6 && !saved.isEmpty()) {
+                        FileManager.updateBillStatus(saved.get(random.nextInt(saved.size())), random.nextBoolean());
+                    } else if (operation == 6) {
+                        FileManager.loadBillsForCompany(company.getId(), 0, Long.MAX_VALUE);
+                        FileManager.getCompanyTotals(company.getId());
+                    } else if (operation == 7) {
+                        FileManager.searchBillIds("Stress");
+                    } else if (operation == 8) {
+                        int first = FileManager.allocateBillIds(3);
+                        for (int id = first; id < first + 3; id++) {
+                            if (!handedOut.add(id)) problems.add("Bill id allocated twice: " + id);
+                        }
+                    } else {
+                        FileManager.loadBillsForUser(customer.getId());
+                        FileManager.getCustomerTotals(customer.getId());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(problems.toString(), problems.isEmpty());
+
+        List<Bill> companyBills = FileManager.loadBillsForCompany(company.getId());
+        assertEquals(saved.size(), companyBills.size());
+        BillAggregates.Totals totals = FileManager.getCompanyTotals(company.getId());
+        int paid = 0;
+        for (Bill bill : companyBills) {
+            if (bill.isIspaid()) paid++;
+        }
+        assertEquals(companyBills.size(), totals.getCount());
+        assertEquals(paid, totals.getPaidCount());
+        int customerCount = 0;
+        for (Customer customer : customers) {
+            customerCount += FileManager.getCustomerTotals(customer.getId()).getCount();
+        }
+        assertEquals(companyBills.size(), customerCount);
+
+        assertEquals(lines(companyBills, company.getId()), lines(readBack(), company.getId()));
+    }
+
+    // The bills file and its journal as a fresh start of the application would load them
+    private static List<Bill> readBack() throws IOException {
+        FileManager.awaitCompaction();
+        Path billsFile = TestData.useTempDir().resolve("bills.txt");
+        List<Bill> bills = Files.exists(billsFile) ? new MappedBillReader().read(billsFile) : new ArrayList<>();
+        new BillJournal(billsFile.toString()).replay(bills, FileManagerConcurrencyTest::parse);
+        return bills;
+    }
+
+    private static Bill parse(String line) {
+        String[] parts = line.split("\\|");
+        return new Bill(Integer.parseInt(parts[0]), Double.parseDouble(parts[1]), Integer.parseInt(parts[2]),
+                Integer.parseInt(parts[3]), parts[4], parts[5], Long.parseLong(parts[6]), Long.parseLong(parts[7]),
+                Boolean.parseBoolean(parts[8]));
+    }
+
+    private static Map<Integer, String> lines(List<Bill> bills, int companyId) {
+        Map<Integer, String> lines = new TreeMap<>();
+        for (Bill bill : bills) {
+            if (bill.getCompanyId() == companyId) lines.put(bill.getBillId(), bill.toDataString());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,177 @@
+package billing.management.system;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FileManagerTest {
+    @BeforeClass
+    public static void useTempDataDir() {
+        TestData.useTempDir();
+    }
+
+    @Test
+    public void loadsBillsForCustomerWithoutCompanyBills() {
+        Customer customer = TestData.addCustomer("Only Customer");
+        Company company = TestData.addCompany("Water Works");
+        FileManager.saveBill(TestData.newBill(customer, company, 12.5, 3, false));
+        FileManager.saveBill(TestData.newBill(customer, company, 7.25, 1, true));
+
+        List<Bill> bills = FileManager.loadBillsForUser(customer.getId());
+        assertEquals(2, bills.size());
+        for (Bill bill : bills) {
+            assertEquals(customer.getId(), bill.getCustomerId());
+        }
+        assertEquals(2, FileManager.loadBillsForUser(company.getId()).size());
+    }
+
+    @Test
+    public void loadsNoBillsForUserWithoutBills() {
+        Customer customer = TestData.addCustomer("No Bills");
+        List<Bill> bills = FileManager.loadBillsForUser(customer.getId());
+        assertTrue(bills.isEmpty());
+        // Callers may add to the list they get
+        bills.add(null);
+    }
+
+    @Test
+    public void deletingCustomerDeletesTheirBills() {
+        Customer customer = TestData.addCustomer("Leaving Customer");
+        Company company = TestData.addCompany("Gas Corp");
+        Bill bill = TestData.newBill(customer, company, 40, 2, false);
+        FileManager.saveBill(bill);
+
+        FileManager.deleteUser(customer.getId());
+
+        assertNull(FileManager.findUserById(customer.getId()));
+        assertNull(FileManager.findBillById(bill.getBillId()));
+        assertTrue(FileManager.loadBillsForCompany(company.getId()).isEmpty());
+    }
+
+    @Test
+    public void deletingCompanyDeletesAllItsBills() {
+        Customer first = TestData.addCustomer("First Tenant");
+        Customer second = TestData.addCustomer("Second Tenant");
+        Company company = TestData.addCompany("Closing Company");
+        Company other = TestData.addCompany("Staying Company");
+        List<Bill> bills = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            bills.add(TestData.newBill(i % 2 == 0 ? first : second, company, 10 + i, 10 - i, i % 3 == 0));
+        }
+        Bill kept = TestData.newBill(first, other, 5, 4, false);
+        bills.add(kept);
+        FileManager.appendBills(bills);
+        // Builds the customer's date order so that it is kept up to date by the delete
+        assertEquals(6, FileManager.loadBillsForCustomer(first.getId(), 0, Long.MAX_VALUE).size());
+
+        FileManager.deleteUser(company.getId());
+
+        assertEquals(Collections.singletonList(kept), FileManager.loadBillsForCustomer(first.getId()));
+        assertEquals(Collections.singletonList(kept), FileManager.loadBillsForCustomer(first.getId(), 0, Long.MAX_VALUE));
+        assertTrue(FileManager.loadBillsForCustomer(second.getId()).isEmpty());
+        assertEquals(1, FileManager.getCustomerTotals(first.getId()).getCount());
+        assertEquals(0, FileManager.getCustomerTotals(second.getId()).getCount());
+        for (Bill bill : FileManager.loadBillsBetween(Long.MIN_VALUE, Long.MAX_VALUE)) {
+            assertTrue(bill.getCompanyId() != company.getId());
+        }
+        assertNull(FileManager.findBillById(bills.get(0).getBillId()));
+    }
+
+    @Test
+    public void statusChangeLeavesEarlierSnapshotsAsTheyWere() {
+        Customer customer = TestData.addCustomer("Paying Customer");
+        Company company = TestData.addCompany("Power Co");
+        Bill bill = TestData.newBill(customer, company, 25, 1, false);
+        FileManager.saveBill(bill);
+        DataSnapshot<Bill> before = FileManager.loadBills();
+
+        FileManager.updateBillStatus(bill.getBillId(), true);
+
+        assertTrue(before.contains(bill));
+        assertFalse(bill.isIspaid());
+        DataSnapshot<Bill> after = FileManager.loadBills();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertTrue(FileManager.findBillById(bill.getBillId()).isIspaid());
+        assertEquals(1, FileManager.getCustomerTotals(customer.getId()).getPaidCount());
+        assertEquals(1, FileManager.loadBillsForCustomer(customer.getId(), 0, Long.MAX_VALUE).size());
+        assertTrue(FileManager.loadBillsForCustomer(customer.getId(), 0, Long.MAX_VALUE).get(0).isIspaid());
+    }
+
+    @Test
+    public void statusChangePatchesBillColumns() {
+        Customer customer = TestData.addCustomer("Column Customer");
+        Company company = TestData.addCompany("Column Company");
+        Bill bill = TestData.newBill(customer, company, 60, 45, false);
+        FileManager.saveBill(bill);
+        BillColumns before = FileManager.loadBillColumns();
+        int paidBefore = new BillQuery(null, null, BillQuery.PAID).run(before).size();
+
+        FileManager.updateBillStatus(bill.getBillId(), true);
+
+        BillColumns after = FileManager.loadBillColumns();
+        assertEquals(FileManager.getBillsVersion(), after.getVersion());
+        assertEquals(before.size(), after.size());
+        assertEquals(paidBefore + 1, new BillQuery(null, null, BillQuery.PAID).run(after).size());
+        assertEquals(paidBefore, new BillQuery(null, null, BillQuery.PAID).run(before).size());
+        assertTrue(FileManager.loadBillColumns() == after);
+    }
+
+    @Test(timeout = 60_000)
+    public void submitsAndSavesBillsConcurrentlyWithoutJournal() throws Exception {
+        Customer customer = TestData.addCustomer("Busy Customer");
+        Company company = TestData.addCompany("Busy Company");
+        FileManager.setJournalEnabled(false);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                boolean submit = thread % 2 == 0;
+                running.add(executor.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        Bill bill = TestData.newBill(customer, company, 1, 1, false);
+                        if (submit) {
+                            FileManager.submitBill(bill).get();
+                        } else {
+                            FileManager.saveBill(bill);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            FileManager.setJournalEnabled(true);
+        }
+        assertEquals(80, FileManager.loadBillsForCustomer(customer.getId()).size());
+    }
+
+    @Test
+    public void reloadsBillsChangedOutsideTheApplication() throws Exception {
+        Customer customer = TestData.addCustomer("Outside Customer");
+        Company company = TestData.addCompany("Outside Company");
+        FileManager.loadBills();
+        Bill bill = TestData.newBill(customer, company, 3, 1, false);
+        Files.write(TestData.useTempDir().resolve("bills.txt"), Collections.singletonList(bill.toDataString()),
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        // The files are looked at again at most once a second
+        Thread.sleep(1100);
+        assertEquals(1, FileManager.loadBillsForCustomer(customer.getId()).size());
+    }
+}
@@ -0,0 +1,71 @@
+package billing.management.system;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Load time of a bills file with the sequential {@link MappedBillReader} and with
+ * {@link ParallelBillLoader} on 1, 2, 4, ... threads up to the thread limit, best of three runs
+ * each. Without a file it writes a synthetic one with the given number of bills first.
+ *
+ * <p>Usage: {@code ParallelLoaderBenchmark [bills file | bill count] [max threads]}
+ */
+public class ParallelLoaderBenchmark {
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) throws IOException {
+        Path file;
+        if (args.length > 0 && !args[0].matches("\\d+")) {
+            file = Paths.get(args[0]);
+        } else {
+            file = Files.createTempFile("bills-benchmark", ".txt");
+            file.toFile().deleteOnExit();
+            writeBills(file, args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000);
+        }
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        System.out.printf("%s: %d MB, %d processors%n", file, Files.size(file) >> 20, Runtime.getRuntime().availableProcessors());
+
+        long sequential = best(() -> new MappedBillReader().read(file).size());
+        System.out.printf("sequential       %6d ms%n", sequential);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            int loaderThreads = threads;
+            long millis = best(() -> new ParallelBillLoader(loaderThreads).read(file).size());
+            System.out.printf("parallel %3d thr %6d ms  %.2fx%n", threads, millis, (double) sequential / millis);
+        }
+    }
+
+    private interface Load {
+        int run() throws IOException;
+    }
+
+    private static long best(Load load) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long started = System.nanoTime();
+            load.run();
+            best = Math.min(best, (System.nanoTime() - started) / 1_000_000);
+        }
+        return best;
+    }
+
+    static void writeBills(Path file, int count) throws IOException {
+        Random random = new Random(42);
+        long start = 1_600_000_000_000L;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int id = 1; id <= count; id++) {
+                int customerId = 1 + random.nextInt(50_000);
+                int companyId = 50_001 + random.nextInt(500);
+                long date = start + (long) (random.nextDouble() * 100_000_000_000L);
+                Bill bill = new Bill(id, random.nextInt(100_000) / 100.0, customerId, companyId,
+                        "customer " + customerId, "company " + companyId, date, date + 2_592_000_000L, random.nextBoolean());
+                writer.write(bill.toDataString());
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package billing.management.system;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixtures for tests that go through FileManager. The data files live in a temporary directory
+ * set through {@code billing.dir} before FileManager is first used, so tests never touch the real
+ * users.txt and bills.txt. Tests in one JVM share that directory, so each creates its own users.
+ */
+final class TestData {
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private TestData() {
+    }
+
+    static synchronized Path useTempDir() {
+        String dir = System.getProperty("billing.dir");
+        if (dir == null) {
+            try {
+                dir = Files.createTempDirectory("billing-test").toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            System.setProperty("billing.dir", dir);
+        }
+        return Paths.get(dir);
+    }
+
+    static Customer addCustomer(String name) {
+        Customer customer = new Customer(name, "secret", FileManager.generateUserId(), name.replace(' ', '.') + "@example.com", new Date());
+        FileManager.addUser(customer);
+        return customer;
+    }
+
+    static Company addCompany(String name) {
+        Company company = new Company(name, "secret", FileManager.generateUserId(), name.replace(' ', '.') + "@example.com", "Utilities");
+        FileManager.addUser(company);
+        return company;
+    }
+
+    /** A new unsaved bill dated {@code daysAgo} days ago and due 30 days after that. */
+    static Bill newBill(Customer customer, Company company, double value, int daysAgo, boolean paid) {
+        long date = System.currentTimeMillis() - daysAgo * DAY;
+        return new Bill(FileManager.generateBillId(), value, customer.getId(), company.getId(),
+                customer.getName(), company.getName(), date, date + 30 * DAY, paid);
+    }
+}